@@ -0,0 +1,173 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * ApproximateCounter class counts a stream of keys in bounded memory. Every key
+ * goes to a Count-Min sketch for its frequency and a HyperLogLog for the
+ * number of distinct keys. Only a key whose estimate reaches the threshold is
+ * promoted into an exact hash table of fixed capacity, and from then on its
+ * occurrences are counted exactly. Its count in the hash table starts at the
+ * estimate when it was promoted, so it may be slightly above the true count.
+ * <p>
+ * The sketch never estimates below the true count and only grows, so a key
+ * estimated below the threshold cannot be in the hash table, and most adds
+ * never probe it.
+ *
+ * @author Sajia Zafreen
+ *
+ * @param <T>
+ */
+public class ApproximateCounter<T> {
+
+	private static final double LOAD_FACTOR = 0.75; // of the hash table when full
+	private static final TwinPrimeGenerator PRIME_GENERATOR = new TwinPrimeGenerator(2);
+
+	private final Hasher hasher = HashFunction.MURMUR3; // sketches need every bit of the hash key mixed
+	private final CountMinSketch frequencies;
+	private final HyperLogLog distinct;
+	private final HashTable<T> hashTable;
+	private final long threshold;
+	private final int capacity;
+	private long missedPromotions; // keys at the threshold when the hash table was full
+
+	/**
+	 * Constructor with a sketch of 4 rows of 2^16 counters and a HyperLogLog of
+	 * precision 14, about 2 MB in all
+	 *
+	 * @param tableType is the type of hashing of the hash table
+	 * @param threshold is the estimated frequency at which a key is promoted
+	 * @param capacity  is the most keys promoted
+	 */
+	public ApproximateCounter(int tableType, long threshold, int capacity) {
+		this(tableType, threshold, capacity, 1 << 16, 4, 14);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param tableType is the type of hashing of the hash table
+	 * @param threshold is the estimated frequency at which a key is promoted
+	 * @param capacity  is the most keys promoted
+	 * @param width     is the number of counters of each row of the sketch
+	 * @param depth     is the number of rows of the sketch
+	 * @param precision is the precision of the HyperLogLog
+	 */
+	public ApproximateCounter(int tableType, long threshold, int capacity, int width, int depth, int precision) {
+		if (threshold < 1 || capacity < 1) {
+			throw new IllegalArgumentException("Threshold and capacity should be at least 1");
+		}
+		int from = (int) Math.min(Integer.MAX_VALUE / 2, Math.ceil(capacity / LOAD_FACTOR));
+		int tableSize = PRIME_GENERATOR.getTwinPrime(from, 2 * from);
+		this.frequencies = new CountMinSketch(width, depth);
+		this.distinct = new HyperLogLog(precision);
+		this.hashTable = new HashTable<T>(tableSize, tableType, 0, hasher);
+		this.threshold = threshold;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Counts one occurrence of a key
+	 *
+	 * @param object is the key
+	 */
+	public void add(T object) {
+		int hash = hasher.hash(object);
+		distinct.add(hash);
+		long estimate = frequencies.add(hash);
+		if (estimate < threshold) {
+			return;
+		}
+		if (hashTable.getLiveCount() < capacity) {
+			int promoted = hashTable.getLiveCount();
+			hashTable.insert(object); // a promoted key is counted as a duplicate
+			if (hashTable.getLiveCount() > promoted && estimate > 1) {
+				// newly promoted, so it starts from the sketch estimate
+				hashTable.insert(object, (int) Math.min(estimate - 1, Integer.MAX_VALUE));
+			}
+		} else if (!hashTable.insertDuplicate(object)) {
+			missedPromotions++;
+		}
+	}
+
+	/**
+	 * Returns the count of a key, exact since promotion for a promoted key and
+	 * the sketch estimate otherwise
+	 *
+	 * @param object is the key
+	 * @return the count of the key
+	 */
+	public long estimate(T object) {
+		HashObject<T> hashObject = hashTable.search(object);
+		if (hashObject != null) {
+			return hashObject.getFrequency() + 1L; // the frequency counts the duplicates
+		}
+		return frequencies.estimate(hasher.hash(object));
+	}
+
+	/**
+	 * Returns the estimate of the number of distinct keys added
+	 *
+	 * @return the number of distinct keys
+	 */
+	public long distinctCount() {
+		return distinct.estimate();
+	}
+
+	/**
+	 * Returns the promoted keys with the largest counts, largest first
+	 *
+	 * @param k is the number of keys
+	 * @return the hash objects of at most k keys
+	 */
+	public List<HashObject<T>> heavyHitters(int k) {
+		List<HashObject<T>> hitters = new ArrayList<HashObject<T>>();
+		for (int i = 0; i < hashTable.getTableSize(); i++) {
+			HashObject<T> hashObject = hashTable.getTableContent(i);
+			if (hashObject != null) {
+				hitters.add(hashObject);
+			}
+		}
+		hitters.sort(Comparator.comparingInt((HashObject<T> hashObject) -> hashObject.getFrequency()).reversed());
+		return hitters.subList(0, Math.min(k, hitters.size()));
+	}
+
+	/**
+	 * Returns if the key is in the exact hash table
+	 *
+	 * @param object is the key
+	 * @return if the key is promoted
+	 */
+	public boolean isPromoted(T object) {
+		return hashTable.contains(object);
+	}
+
+	/**
+	 * Returns the number of occurrences added
+	 *
+	 * @return the number of occurrences
+	 */
+	public long getTotal() {
+		return frequencies.getTotal();
+	}
+
+	/**
+	 * Returns the number of adds of a key at the threshold which was not
+	 * promoted as the hash table was full
+	 *
+	 * @return the number of missed promotions
+	 */
+	public long getMissedPromotions() {
+		return missedPromotions;
+	}
+
+	/**
+	 * Returns the hash table of the promoted keys
+	 *
+	 * @return the hash table
+	 */
+	public HashTable<T> getHashTable() {
+		return hashTable;
+	}
+
+}
@@ -0,0 +1,177 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * BatchProcessor class collects the keys of a publisher into batches of a
+ * fixed size for one subscriber. A request for n batches asks the publisher
+ * for n times the batch size keys, so no more keys are made than the batches
+ * asked for. The last batch holds the keys left when the publisher ends and
+ * may be smaller.
+ *
+ * @author Sajia Zafreen
+ *
+ * @param <T>
+ */
+public class BatchProcessor<T> implements Flow.Processor<T, List<T>> {
+
+	private final int batchSize;
+	private Flow.Subscription upstream;
+	private Flow.Subscriber<? super List<T>> downstream;
+	private List<T> batch;
+	private Throwable error; // an end of the publisher before the subscriber was ready
+	private boolean completed;
+	private boolean connected; // the subscriber was given its subscription
+	private boolean ready; // the subscriber can be given the end of the publisher
+
+	/**
+	 * Constructor
+	 *
+	 * @param batchSize is the number of keys of a batch
+	 */
+	public BatchProcessor(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size should be at least 1");
+		}
+		this.batchSize = batchSize;
+		this.batch = new ArrayList<T>(batchSize);
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		synchronized (this) {
+			if (upstream != null) {
+				subscription.cancel(); // one publisher only
+				return;
+			}
+			upstream = subscription;
+		}
+		connect();
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super List<T>> subscriber) {
+		synchronized (this) {
+			if (downstream != null) {
+				subscriber.onSubscribe(new BatchSubscription(null));
+				subscriber.onError(new IllegalStateException("BatchProcessor has only one subscriber"));
+				return;
+			}
+			downstream = subscriber;
+		}
+		connect();
+	}
+
+	/**
+	 * Gives the subscriber its subscription once both the publisher and the
+	 * subscriber are there, with any end of the publisher which came before.
+	 * An end coming later is given by onError or onComplete, so the end is given
+	 * once and only after the subscription.
+	 */
+	private void connect() {
+		Flow.Subscriber<? super List<T>> subscriber;
+		Flow.Subscription subscription;
+		synchronized (this) {
+			if (upstream == null || downstream == null || connected) {
+				return;
+			}
+			connected = true;
+			subscriber = downstream;
+			subscription = upstream;
+		}
+		subscriber.onSubscribe(new BatchSubscription(subscription));
+		Throwable failure;
+		boolean ended;
+		synchronized (this) {
+			ready = true;
+			failure = error;
+			ended = completed;
+		}
+		if (failure != null) {
+			subscriber.onError(failure);
+		} else if (ended) {
+			complete(subscriber);
+		}
+	}
+
+	@Override
+	public void onNext(T key) {
+		batch.add(key);
+		if (batch.size() == batchSize) {
+			List<T> full = batch;
+			batch = new ArrayList<T>(batchSize); // the subscriber may keep the batch it is given
+			downstream.onNext(full);
+		}
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		Flow.Subscriber<? super List<T>> subscriber;
+		synchronized (this) {
+			error = throwable;
+			subscriber = ready ? downstream : null;
+		}
+		if (subscriber != null) {
+			subscriber.onError(throwable);
+		}
+	}
+
+	@Override
+	public void onComplete() {
+		Flow.Subscriber<? super List<T>> subscriber;
+		synchronized (this) {
+			completed = true;
+			subscriber = ready ? downstream : null;
+		}
+		if (subscriber != null) {
+			complete(subscriber);
+		}
+	}
+
+	/**
+	 * Gives the subscriber the keys left in the last batch and the end of the
+	 * publisher
+	 *
+	 * @param subscriber is the subscriber
+	 */
+	private void complete(Flow.Subscriber<? super List<T>> subscriber) {
+		if (!batch.isEmpty()) {
+			subscriber.onNext(batch); // the keys of a batch which was asked for
+			batch = new ArrayList<T>(0);
+		}
+		subscriber.onComplete();
+	}
+
+	/**
+	 * BatchSubscription class turns requests for batches into requests for keys
+	 */
+	private final class BatchSubscription implements Flow.Subscription {
+
+		private final Flow.Subscription keys; // null for a rejected subscriber
+
+		/**
+		 * Constructor
+		 *
+		 * @param keys is the subscription to the keys
+		 */
+		BatchSubscription(Flow.Subscription keys) {
+			this.keys = keys;
+		}
+
+		@Override
+		public void request(long n) {
+			if (keys != null) {
+				keys.request(n <= 0 ? n : n > Long.MAX_VALUE / batchSize ? Long.MAX_VALUE : n * batchSize);
+			}
+		}
+
+		@Override
+		public void cancel() {
+			if (keys != null) {
+				keys.cancel();
+			}
+		}
+
+	}
+
+}
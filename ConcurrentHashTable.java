@@ -0,0 +1,203 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ConcurrentHashTable class is a hash table which many threads can insert into
+ * at the same time. An empty index is claimed with a compare-and-set, the
+ * frequency of a duplicate is incremented atomically and the statistics are
+ * kept in LongAdders, so no insert takes a lock.
+ *
+ * @author Sajia Zafreen
+ *
+ * @param <T>
+ */
+public class ConcurrentHashTable<T> {
+
+	private static final VarHandle FREQUENCY;
+
+	static {
+		try {
+			FREQUENCY = MethodHandles.lookup().findVarHandle(HashObject.class, "frequency", int.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final AtomicReferenceArray<HashObject<T>> hashTable; // null is a NIL index
+	private final ProbeType probeType;
+	private final int tableSize;
+
+	private final LongAdder totalProbs = new LongAdder();
+	private final LongAdder totalInsert = new LongAdder();
+	private final LongAdder duplicateCount = new LongAdder();
+
+	/**
+	 * Constructor
+	 *
+	 * @param tableSize is the table size of the hash table
+	 * @param tableType is 1 for linear, 2 for double or 3 for quadratic hashing
+	 */
+	public ConcurrentHashTable(int tableSize, int tableType) {
+		this.probeType = ProbeType.of(tableType);
+		if (probeType == ProbeType.ROBIN_HOOD) {
+			throw new IllegalArgumentException("Robin Hood hashing moves stored keys and cannot be lock-free");
+		}
+		this.tableSize = tableSize;
+		this.hashTable = new AtomicReferenceArray<HashObject<T>>(tableSize);
+	}
+
+	/**
+	 * Returns the hash value of modulus operation on the hash key
+	 *
+	 * @param key       is the hash key of the object
+	 * @param tableSize is the size of the hash table
+	 * @return the hash value from modulus operation on hash key
+	 */
+	private static int modOperation(int key, int tableSize) {
+		int hashValue = key % tableSize;
+		if (hashValue < 0) {
+			hashValue += tableSize;
+		}
+		return hashValue;
+	}
+
+	/**
+	 * Inserts an object to the hash table. Safe to call from many threads.
+	 *
+	 * @param object is the object to hashed in the hash table
+	 */
+	public void insert(T object) {
+		HashObject<T> hashObject = new HashObject<T>(object);
+		int key = hashObject.getKey();
+		int step = probeType.firstStep(key, tableSize);
+		int j = modOperation(key, tableSize);
+		for (int localCount = 1; localCount <= tableSize; localCount++) {
+			HashObject<T> stored = hashTable.get(j);
+			if (stored == null) {
+				hashObject.setProbCount(localCount); // written before the set publishes the object
+				if (hashTable.compareAndSet(j, null, hashObject)) {
+					totalInsert.increment();
+					totalProbs.add(localCount);
+					return;
+				}
+				stored = hashTable.get(j); // another thread took the index first, it may hold the same key
+			}
+			if (stored.getKey() == key && stored.getObject().equals(object)) {
+				FREQUENCY.getAndAdd(stored, 1);
+				duplicateCount.increment();
+				return;
+			}
+			j += step;
+			if (j >= tableSize) {
+				j -= tableSize;
+			}
+			step = probeType.nextStep(step, tableSize);
+		}
+	}
+
+	/**
+	 * Returns the hash object equal to the given object
+	 *
+	 * @param object is the object to be searched in the hash table
+	 * @return the hash object holding the object, or null if it is not in the
+	 *         hash table
+	 */
+	public HashObject<T> search(T object) {
+		int key = object.hashCode();
+		int step = probeType.firstStep(key, tableSize);
+		int j = modOperation(key, tableSize);
+		for (int index = 0; index < tableSize; index++) {
+			HashObject<T> stored = hashTable.get(j);
+			if (stored == null) {
+				return null;
+			}
+			if (stored.getKey() == key && stored.getObject().equals(object)) {
+				return stored;
+			}
+			j += step;
+			if (j >= tableSize) {
+				j -= tableSize;
+			}
+			step = probeType.nextStep(step, tableSize);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the frequency of the object in the hash table
+	 *
+	 * @param object is the object to be searched in the hash table
+	 * @return the frequency of the object, or -1 if it is not in the hash table
+	 */
+	public int frequencyOf(T object) {
+		HashObject<T> hashObject = search(object);
+		return hashObject == null ? -1 : (int) FREQUENCY.getVolatile(hashObject);
+	}
+
+	/**
+	 * Returns the hash object of the given index
+	 *
+	 * @param index is the index of the hash table
+	 * @return the hash object of the given index, or null
+	 */
+	public HashObject<T> getTableContent(int index) {
+		return hashTable.get(index);
+	}
+
+	/**
+	 * Returns the hash table type
+	 *
+	 * @return the hash table type
+	 */
+	public int getTableType() {
+		return probeType.getTableType();
+	}
+
+	/**
+	 * Returns the hash table size
+	 *
+	 * @return the hash table size
+	 */
+	public int getTableSize() {
+		return tableSize;
+	}
+
+	/**
+	 * Returns the total inserts in the hash table
+	 *
+	 * @return the total number of inserts in the hash table
+	 */
+	public long getTotalInsert() {
+		return totalInsert.sum();
+	}
+
+	/**
+	 * Returns number of duplicates in the hash table
+	 *
+	 * @return number of duplicates in the hash table
+	 */
+	public long getDuplicateCount() {
+		return duplicateCount.sum();
+	}
+
+	/**
+	 * Returns the number of total probes of inserted objects in the hash table
+	 *
+	 * @return the number of total probes of the inserted objects in the hash table
+	 */
+	public long getTotalProbs() {
+		return totalProbs.sum();
+	}
+
+	/**
+	 * Returns if the hash table is empty or not
+	 *
+	 * @return if the hash table empty
+	 */
+	public boolean isEmpty() {
+		return totalInsert.sum() == 0;
+	}
+
+}
@@ -0,0 +1,125 @@
+/**
+ * CountMinSketch class estimates how often each key was added in a fixed
+ * amount of memory. Each of the depth rows has width counters, and a key adds
+ * to one counter of every row. The estimate is the smallest of its counters,
+ * which is never below the true count. With conservative update only the
+ * counters at that smallest value grow, so with width w and depth d the
+ * estimate is within 2N/w of the true count of N adds with probability at
+ * least 1 - 2^-d, and usually much closer.
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public class CountMinSketch {
+
+	private final long[] counters; // depth rows of width counters
+	private final int width;
+	private final int depth;
+	private final int mask;
+	private long total;
+
+	/**
+	 * Constructor
+	 *
+	 * @param width is the number of counters of each row, rounded up to a power
+	 *              of two
+	 * @param depth is the number of rows
+	 */
+	public CountMinSketch(int width, int depth) {
+		if (width < 1 || width > 1 << 30 || depth < 1) {
+			throw new IllegalArgumentException("Width should be between 1 and 2^30 and depth at least 1");
+		}
+		this.width = Integer.highestOneBit(width) == width ? width : Integer.highestOneBit(width) << 1;
+		if ((long) this.width * depth > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Sketch of " + this.width + " by " + depth + " is too large");
+		}
+		this.depth = depth;
+		this.mask = this.width - 1;
+		this.counters = new long[this.width * depth];
+	}
+
+	/**
+	 * Returns the counter of the key in the given row. The rows use the double
+	 * hashing h1 + row * h2 of the hash key.
+	 *
+	 * @param hash is the mixed hash key of the key
+	 * @param row  is the row
+	 * @return the index of the counter
+	 */
+	private int index(int hash, int row) {
+		int step = HashFunction.fmix32(hash ^ 0x9e3779b9) | 1; // odd, so rows differ for any width
+		return row * width + ((hash + row * step) & mask);
+	}
+
+	/**
+	 * Adds one occurrence of a key
+	 *
+	 * @param hash is the mixed hash key of the key
+	 * @return the new estimate of the key
+	 */
+	public long add(int hash) {
+		return add(hash, 1);
+	}
+
+	/**
+	 * Adds the given number of occurrences of a key
+	 *
+	 * @param hash  is the mixed hash key of the key
+	 * @param count is the number of occurrences
+	 * @return the new estimate of the key
+	 */
+	public long add(int hash, long count) {
+		long estimate = estimate(hash) + count;
+		for (int row = 0; row < depth; row++) {
+			int i = index(hash, row);
+			if (counters[i] < estimate) {
+				counters[i] = estimate;
+			}
+		}
+		total += count;
+		return estimate;
+	}
+
+	/**
+	 * Returns the estimate of how often a key was added, never below the true
+	 * count
+	 *
+	 * @param hash is the mixed hash key of the key
+	 * @return the estimate
+	 */
+	public long estimate(int hash) {
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			estimate = Math.min(estimate, counters[index(hash, row)]);
+		}
+		return estimate;
+	}
+
+	/**
+	 * Returns the number of occurrences added
+	 *
+	 * @return the number of occurrences
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * Returns the number of counters of each row
+	 *
+	 * @return the width
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the number of rows
+	 *
+	 * @return the depth
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+}
@@ -0,0 +1,398 @@
+import java.util.Arrays;
+
+/**
+ * CuckooHashTable class is a hash table where every object has two buckets of
+ * 4 indexes, one from each of two seeded hashes of its hash key, and is always
+ * in one of them or in a small stash. A lookup reads at most the two buckets
+ * and the stash, however full the table is. An insert into two full buckets
+ * moves an object of one of them to its other bucket, and so on, until an
+ * object finds a free index. After too many moves the object left over goes to
+ * the stash, and when the stash is full every object is placed again with new
+ * seeds, on a larger table of the next twin prime number of buckets if new
+ * seeds do not help.
+ * <p>
+ * The number of probes of an insert is the number of buckets read to place it,
+ * 1 or 2 and one more for each object moved. The indexes of the stash follow
+ * the indexes of the buckets, so getTableSize and getTableContent cover both.
+ *
+ * @author Sajia Zafreen
+ *
+ * @param <T>
+ */
+public class CuckooHashTable<T> implements OpenHashTable<T> {
+
+	/**
+	 * The number of the cuckoo table in HashTest, after the Swiss table
+	 */
+	public static final int TABLE_TYPE = 6;
+
+	private static final int BUCKET_SIZE = 4;
+	private static final int STASH_SIZE = 8;
+	private static final int MAX_MOVES = 256; // moves of one insert before the stash is used
+	private static final int MAX_REHASH = 8; // rehashes with new seeds before the table grows
+	private static final TwinPrimeGenerator PRIME_GENERATOR = new TwinPrimeGenerator(2);
+
+	private HashObject<T>[] hashTable; // bucketCount buckets of BUCKET_SIZE indexes
+	private final HashObject<T>[] stash;
+	private int stashCount;
+	private int bucketCount;
+	private int firstSeed;
+	private int secondSeed;
+	private int random = 0x9e3779b9; // xorshift state, for the bucket an object is moved from
+	private HashObject<T> homeless; // object left over by a failed place
+	private final Hasher hasher;
+
+	private long totalProbs; // for full hashTable for each of the insertion
+	private long totalInsert;
+	private long duplicateCount;
+	private int rehashCount;
+
+	/**
+	 * Constructor
+	 *
+	 * @param tableSize is the least number of indexes of the buckets, rounded up
+	 *                  to a twin prime number of buckets of 4
+	 */
+	public CuckooHashTable(int tableSize) {
+		this(tableSize, HashFunction.JAVA);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param tableSize is the least number of indexes of the buckets, rounded up
+	 *                  to a twin prime number of buckets of 4
+	 * @param hasher    is the hasher of the objects, whose hash key is mixed
+	 *                  again with each seed
+	 */
+	public CuckooHashTable(int tableSize, Hasher hasher) {
+		if (tableSize < 1 || tableSize > Integer.MAX_VALUE / 4) {
+			throw new IllegalArgumentException("Table size should be between 1 and " + Integer.MAX_VALUE / 4);
+		}
+		this.hasher = hasher;
+		this.bucketCount = twinPrimeBuckets((tableSize + BUCKET_SIZE - 1) / BUCKET_SIZE);
+		this.hashTable = HashTable.newTable(bucketCount * BUCKET_SIZE);
+		this.stash = HashTable.newTable(STASH_SIZE);
+		this.firstSeed = nextRandom();
+		this.secondSeed = nextRandom();
+	}
+
+	/**
+	 * Returns the smallest twin prime number of buckets found from the given
+	 * number
+	 *
+	 * @param buckets is the least number of buckets
+	 * @return the number of buckets
+	 */
+	private static int twinPrimeBuckets(int buckets) {
+		int from = Math.max(buckets, 5);
+		int prime = PRIME_GENERATOR.getTwinPrime(from, (int) Math.min(Integer.MAX_VALUE / 8, 2L * from));
+		return prime > 0 ? prime : from;
+	}
+
+	/**
+	 * Returns the next number of the xorshift generator
+	 *
+	 * @return the next random number
+	 */
+	private int nextRandom() {
+		random ^= random << 13;
+		random ^= random >>> 17;
+		random ^= random << 5;
+		return random;
+	}
+
+	/**
+	 * Returns the bucket of a hash key for one of the seeds
+	 *
+	 * @param key  is the hash key
+	 * @param seed is the seed of the first or second bucket
+	 * @return the bucket
+	 */
+	private int bucket(int key, int seed) {
+		int hashValue = HashFunction.fmix32(key ^ seed) % bucketCount;
+		return hashValue < 0 ? hashValue + bucketCount : hashValue;
+	}
+
+	/**
+	 * Returns the hash object of the object in the bucket, or null
+	 *
+	 * @param object is the object
+	 * @param key    is the hash key of the object
+	 * @param bucket is the bucket
+	 * @return the hash object, or null if the object is not in the bucket
+	 */
+	private HashObject<T> findInBucket(Object object, int key, int bucket) {
+		int base = bucket * BUCKET_SIZE;
+		for (int i = base; i < base + BUCKET_SIZE; i++) {
+			HashObject<T> stored = hashTable[i];
+			if (stored != null && stored.getKey() == key && stored.getObject().equals(object)) {
+				return stored;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the first free index of the bucket
+	 *
+	 * @param bucket is the bucket
+	 * @return the free index, or -1 if the bucket is full
+	 */
+	private int freeIndex(int bucket) {
+		int base = bucket * BUCKET_SIZE;
+		for (int i = base; i < base + BUCKET_SIZE; i++) {
+			if (hashTable[i] == null) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public void insert(T object) {
+		insert(object, 1);
+	}
+
+	@Override
+	public void insert(T object, int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException("Count should be at least 1");
+		}
+		int key = hasher.hash(object);
+		HashObject<T> stored = find(object, key);
+		if (stored != null) {
+			stored.setFrequency(stored.getFrequency() + count);
+			duplicateCount += count;
+			return;
+		}
+		HashObject<T> hashObject = new HashObject<T>(object, key);
+		hashObject.setFrequency(count - 1);
+		int probes = place(hashObject);
+		if (probes < 0) {
+			probes = 2 + MAX_MOVES; // every move was tried
+			rehash();
+		}
+		hashObject.setProbCount(probes);
+		totalInsert++;
+		duplicateCount += count - 1;
+		totalProbs = totalProbs + probes;
+	}
+
+	/**
+	 * Places a hash object in one of its buckets, moving other objects to their
+	 * other bucket if both are full, or in the stash
+	 *
+	 * @param hashObject is the hash object to be placed
+	 * @return the number of buckets read, or -1 if the stash is full, with the
+	 *         object left over in homeless
+	 */
+	private int place(HashObject<T> hashObject) {
+		int key = hashObject.getKey();
+		int first = bucket(key, firstSeed);
+		int index = freeIndex(first);
+		if (index >= 0) {
+			hashTable[index] = hashObject;
+			return 1;
+		}
+		int second = bucket(key, secondSeed);
+		index = freeIndex(second);
+		if (index >= 0) {
+			hashTable[index] = hashObject;
+			return 2;
+		}
+		HashObject<T> carried = hashObject;
+		int bucket = (nextRandom() & 1) == 0 ? first : second;
+		for (int move = 1; move <= MAX_MOVES; move++) {
+			index = bucket * BUCKET_SIZE + ((nextRandom() >>> 1) % BUCKET_SIZE);
+			HashObject<T> evicted = hashTable[index];
+			hashTable[index] = carried;
+			carried = evicted;
+			int carriedFirst = bucket(carried.getKey(), firstSeed);
+			bucket = carriedFirst == bucket ? bucket(carried.getKey(), secondSeed) : carriedFirst;
+			index = freeIndex(bucket);
+			if (index >= 0) {
+				hashTable[index] = carried;
+				return 2 + move;
+			}
+		}
+		if (stashCount < STASH_SIZE) {
+			stash[stashCount++] = carried;
+			return 2 + MAX_MOVES;
+		}
+		homeless = carried;
+		return -1;
+	}
+
+	/**
+	 * Places every object again with new seeds, together with the homeless
+	 * object, growing the table if new seeds do not place them all
+	 */
+	private void rehash() {
+		HashObject<T>[] objects = HashTable.newTable(hashTable.length + STASH_SIZE + 1);
+		int count = 0;
+		for (HashObject<T> hashObject : hashTable) {
+			if (hashObject != null) {
+				objects[count++] = hashObject;
+			}
+		}
+		for (int i = 0; i < stashCount; i++) {
+			objects[count++] = stash[i];
+		}
+		objects[count++] = homeless;
+		homeless = null;
+		int attempts = 0;
+		do {
+			if (attempts++ == MAX_REHASH) {
+				bucketCount = twinPrimeBuckets(2 * bucketCount);
+				attempts = 1;
+			}
+			rehashCount++;
+			firstSeed = nextRandom();
+			secondSeed = nextRandom();
+		} while (!rebuild(objects, count));
+	}
+
+	/**
+	 * Places the given hash objects in empty buckets and stash
+	 *
+	 * @param objects is the hash objects
+	 * @param count   is the number of hash objects
+	 * @return if every hash object was placed
+	 */
+	private boolean rebuild(HashObject<T>[] objects, int count) {
+		hashTable = HashTable.newTable(bucketCount * BUCKET_SIZE);
+		Arrays.fill(stash, null);
+		stashCount = 0;
+		for (int i = 0; i < count; i++) {
+			if (place(objects[i]) < 0) {
+				homeless = null;
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the hash object of the object, reading its two buckets and the
+	 * stash
+	 *
+	 * @param object is the object
+	 * @param key    is the hash key of the object
+	 * @return the hash object, or null if the object is not in the hash table
+	 */
+	private HashObject<T> find(Object object, int key) {
+		HashObject<T> found = findInBucket(object, key, bucket(key, firstSeed));
+		if (found == null) {
+			found = findInBucket(object, key, bucket(key, secondSeed));
+		}
+		for (int i = 0; found == null && i < stashCount; i++) {
+			if (stash[i].getKey() == key && stash[i].getObject().equals(object)) {
+				found = stash[i];
+			}
+		}
+		return found;
+	}
+
+	@Override
+	public void insertAll(T[] objects) {
+		for (T object : objects) {
+			insert(object, 1);
+		}
+	}
+
+	@Override
+	public void insertAll(Iterable<? extends T> objects) {
+		for (T object : objects) {
+			insert(object, 1);
+		}
+	}
+
+	@Override
+	public HashObject<T> search(T object) {
+		return find(object, hasher.hash(object));
+	}
+
+	/**
+	 * Returns if the object is in the hash table
+	 *
+	 * @param object is the object to be searched in the hash table
+	 * @return if the object is in the hash table
+	 */
+	public boolean contains(T object) {
+		return search(object) != null;
+	}
+
+	@Override
+	public Hasher getHasher() {
+		return hasher;
+	}
+
+	@Override
+	public int getTableType() {
+		return TABLE_TYPE;
+	}
+
+	@Override
+	public String getTableName() {
+		return "Cuckoo";
+	}
+
+	/**
+	 * Returns the number of indexes of the buckets and the stash
+	 *
+	 * @return the hash table size
+	 */
+	@Override
+	public int getTableSize() {
+		return hashTable.length + STASH_SIZE;
+	}
+
+	@Override
+	public HashObject<T> getTableContent(int index) {
+		return index < hashTable.length ? hashTable[index] : stash[index - hashTable.length];
+	}
+
+	@Override
+	public long getTotalInsert() {
+		return totalInsert;
+	}
+
+	@Override
+	public long getDuplicateCount() {
+		return duplicateCount;
+	}
+
+	@Override
+	public long getTotalProbs() {
+		return totalProbs;
+	}
+
+	/**
+	 * Returns the number of buckets
+	 *
+	 * @return the number of buckets
+	 */
+	public int getBucketCount() {
+		return bucketCount;
+	}
+
+	/**
+	 * Returns the number of objects in the stash
+	 *
+	 * @return the number of objects in the stash
+	 */
+	public int getStashCount() {
+		return stashCount;
+	}
+
+	/**
+	 * Returns the number of times every object was placed again
+	 *
+	 * @return the number of rehashes
+	 */
+	public int getRehashCount() {
+		return rehashCount;
+	}
+
+}
@@ -0,0 +1,146 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * DumpWriter class writes the dump files of hash tables on background threads,
+ * so the dumps of every hash table of a simulation are written at the same
+ * time. The fields of each line are appended to one reused StringBuilder,
+ * copied into one reused char array and written through a large buffer.
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public class DumpWriter implements AutoCloseable {
+
+	/**
+	 * Lines of "table[index]: object frequency probes"
+	 */
+	public static final int TEXT = 1;
+
+	/**
+	 * The text lines compressed with gzip
+	 */
+	public static final int GZIP = 2;
+
+	/**
+	 * A HashTableSnapshot of the table
+	 */
+	public static final int BINARY = 3;
+
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private final ExecutorService executor;
+	private final int format;
+
+	/**
+	 * Constructor
+	 *
+	 * @param format is TEXT, GZIP or BINARY
+	 */
+	public DumpWriter(int format) {
+		if (format < TEXT || format > BINARY) {
+			throw new IllegalArgumentException("Unknown dump format " + format);
+		}
+		this.format = format;
+		this.executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "dump-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Returns the file name of a dump, the given name with .gz or .bin added
+	 * for the gzip and binary formats
+	 *
+	 * @param fileName is the name of the dump
+	 * @return the file name
+	 */
+	public String fileName(String fileName) {
+		if (format == GZIP) {
+			return fileName + ".gz";
+		}
+		if (format == BINARY) {
+			return fileName + ".bin";
+		}
+		return fileName;
+	}
+
+	/**
+	 * Starts writing the dump of a hash table on a background thread. The hash
+	 * table must not change until the returned future is done.
+	 *
+	 * @param hashTable is the hash table
+	 * @param fileName  is the name of the dump
+	 * @return the future of the dump, which fails with the IOException if the
+	 *         file cannot be written
+	 * @throws IllegalArgumentException if a binary dump is asked of a table
+	 *                                  which is not a HashTable
+	 */
+	public <T> Future<Void> submit(OpenHashTable<T> hashTable, String fileName) {
+		if (format == BINARY && !(hashTable instanceof HashTable)) {
+			throw new IllegalArgumentException("Binary dumps need a HashTable, not " + hashTable.getTableName());
+		}
+		String path = fileName(fileName);
+		return executor.submit(() -> {
+			write(hashTable, path);
+			return null;
+		});
+	}
+
+	/**
+	 * Writes the dump of a hash table on the calling thread
+	 *
+	 * @param hashTable is the hash table
+	 * @param path      is the file of the dump
+	 * @throws IOException if the file cannot be written
+	 */
+	private <T> void write(OpenHashTable<T> hashTable, String path) throws IOException {
+		if (format == BINARY) {
+			HashTableSnapshot.save((HashTable<T>) hashTable, Paths.get(path));
+			return;
+		}
+		// each stream is closed even if the next one cannot be opened, a file
+		// stream closed twice is closed once
+		try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(Paths.get(path)), BUFFER_SIZE);
+				OutputStream out = format == GZIP ? new GZIPOutputStream(file, BUFFER_SIZE) : file;
+				Writer writer = new OutputStreamWriter(out)) {
+			StringBuilder line = new StringBuilder();
+			char[] chars = new char[64];
+			String lineSeparator = System.lineSeparator();
+			for (int i = 0; i < hashTable.getTableSize(); i++) {
+				HashObject<T> hashObject = hashTable.getTableContent(i);
+				if (hashObject == null) {
+					continue;
+				}
+				line.setLength(0);
+				line.append("table[").append(i).append("]: ").append(hashObject.getObject()).append(' ')
+						.append(hashObject.getFrequency()).append(' ').append(hashObject.getProbCount())
+						.append(lineSeparator);
+				if (chars.length < line.length()) {
+					chars = new char[line.length() * 2];
+				}
+				line.getChars(0, line.length(), chars, 0); // append(line) would copy it into a String
+				writer.write(chars, 0, line.length());
+			}
+		}
+	}
+
+	/**
+	 * Stops the background threads once the submitted dumps are written
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+}
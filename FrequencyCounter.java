@@ -0,0 +1,104 @@
+/**
+ * FrequencyCounter class is a front end of a hash table for streams with many
+ * duplicates, like the time stamps of System.currentTimeMillis(). An object
+ * not in a small direct mapped cache of recent objects is inserted in the hash
+ * table right away, and then its repeats are only counted in the cache. They
+ * are added to the hash table with one insert when the object leaves the
+ * cache, or on flush.
+ * <p>
+ * With one cache slot only a run of the same object is counted, and the hash
+ * table ends up the same as inserting every object one at a time. With more
+ * slots the frequencies and number of duplicates are still exact after flush,
+ * but while the hash table is resizing the old slots move at other times, so
+ * the probes of later objects may differ. The hash table should not be
+ * searched or changed directly until flush.
+ *
+ * @author Sajia Zafreen
+ *
+ * @param <T>
+ */
+public class FrequencyCounter<T> {
+
+	private final OpenHashTable<T> hashTable;
+	private final Object[] recent; // recent objects, null for an empty slot
+	private final int[] repeats; // repeats of each recent object not yet in the hash table
+	private final int mask;
+
+	/**
+	 * Constructor of a counter of runs of the same object
+	 *
+	 * @param hashTable is the hash table the objects are inserted to
+	 */
+	public FrequencyCounter(OpenHashTable<T> hashTable) {
+		this(hashTable, 1);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param hashTable is the hash table the objects are inserted to
+	 * @param slots     is the number of recent objects kept, a power of two
+	 */
+	public FrequencyCounter(OpenHashTable<T> hashTable, int slots) {
+		if (slots < 1 || Integer.bitCount(slots) != 1) {
+			throw new IllegalArgumentException("Slots should be a power of two");
+		}
+		this.hashTable = hashTable;
+		this.recent = new Object[slots];
+		this.repeats = new int[slots];
+		this.mask = slots - 1;
+	}
+
+	/**
+	 * Counts one more occurrence of the object
+	 *
+	 * @param object is the object to be counted
+	 */
+	public void add(T object) {
+		int slot = mask == 0 ? 0 : HashFunction.fmix32(hashTable.getHasher().hash(object)) & mask;
+		Object cached = recent[slot];
+		if (cached != null && cached.equals(object)) {
+			if (repeats[slot] == Integer.MAX_VALUE) {
+				flush(slot);
+			}
+			repeats[slot]++;
+			return;
+		}
+		flush(slot);
+		hashTable.insert(object); // so the total inserts are never behind
+		recent[slot] = object;
+	}
+
+	/**
+	 * Adds the repeats of one slot to the hash table
+	 *
+	 * @param slot is the slot of the cache
+	 */
+	@SuppressWarnings("unchecked")
+	private void flush(int slot) {
+		if (repeats[slot] > 0) {
+			hashTable.insert((T) recent[slot], repeats[slot]);
+			repeats[slot] = 0;
+		}
+	}
+
+	/**
+	 * Adds every counted repeat to the hash table
+	 */
+	public void flush() {
+		for (int slot = 0; slot < recent.length; slot++) {
+			flush(slot);
+			recent[slot] = null;
+		}
+	}
+
+	/**
+	 * Returns the hash table the objects are inserted to
+	 *
+	 * @return the hash table
+	 */
+	public OpenHashTable<T> getHashTable() {
+		return hashTable;
+	}
+
+}
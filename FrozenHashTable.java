@@ -0,0 +1,241 @@
+/**
+ * FrozenHashTable class is an immutable copy of a loaded hash table, laid out
+ * for lookups. The hash key and frequency of every object are packed into one
+ * long of a single array, with the objects at the same indexes of a parallel
+ * array. The table is a power of two at most half full, probed linearly from
+ * the mixed hash key, so a lookup reads about 1.5 longs of one cache line and
+ * only reads the object array when the hash keys match. Every field is final
+ * and nothing is written after the constructor, so any number of threads can
+ * search it without a lock.
+ * <p>
+ * The frequencies are copied when the table is frozen, so later inserts into
+ * the source table do not change them.
+ *
+ * @author Sajia Zafreen
+ *
+ * @param <T>
+ */
+public class FrozenHashTable<T> {
+
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private final long[] slots; // hash key in the high half, frequency + 1 in the low half, 0 if empty
+	private final Object[] objects;
+	private final int mask;
+	private final int size;
+	private final int maxProbe; // longest probe sequence of a stored object
+	private final long frozenProbs; // probes of a lookup of every stored object
+	private final Hasher hasher;
+	private final int tableType;
+	private final String tableName;
+	private final long totalProbs;
+	private final long totalInsert;
+	private final long duplicateCount;
+
+	/**
+	 * Constructor, copying every object of the hash table with its frequency
+	 *
+	 * @param hashTable is the hash table to be frozen
+	 */
+	public FrozenHashTable(OpenHashTable<T> hashTable) {
+		int count = 0;
+		for (int i = 0; i < hashTable.getTableSize(); i++) {
+			if (hashTable.getTableContent(i) != null) {
+				count++;
+			}
+		}
+		if (count > MAX_CAPACITY / 2) {
+			throw new IllegalArgumentException("Table of " + count + " objects is too large to freeze");
+		}
+		int capacity = Math.max(2, Integer.highestOneBit(Math.max(1, 2 * count - 1)) << 1);
+		this.slots = new long[capacity];
+		this.objects = new Object[capacity];
+		this.mask = capacity - 1;
+		this.size = count;
+		this.hasher = hashTable.getHasher();
+		this.tableType = hashTable.getTableType();
+		this.tableName = hashTable.getTableName();
+		this.totalProbs = hashTable.getTotalProbs();
+		this.totalInsert = hashTable.getTotalInsert();
+		this.duplicateCount = hashTable.getDuplicateCount();
+
+		int longest = 0;
+		long probes = 0;
+		for (int i = 0; i < hashTable.getTableSize(); i++) {
+			HashObject<T> hashObject = hashTable.getTableContent(i);
+			if (hashObject == null) {
+				continue;
+			}
+			int key = hashObject.getKey();
+			int j = HashFunction.fmix32(key) & mask;
+			int localCount = 1;
+			while (slots[j] != 0) {
+				j = (j + 1) & mask;
+				localCount++;
+			}
+			slots[j] = ((long) key << 32) | ((hashObject.getFrequency() + 1) & 0xffffffffL);
+			objects[j] = hashObject.getObject();
+			longest = Math.max(longest, localCount);
+			probes += localCount;
+		}
+		this.maxProbe = longest;
+		this.frozenProbs = probes;
+	}
+
+	/**
+	 * Returns the index of the object
+	 *
+	 * @param object is the object to be searched
+	 * @return the index of the object, or -1 if it is not in the table
+	 */
+	private int indexOf(Object object) {
+		int key = hasher.hash(object);
+		int j = HashFunction.fmix32(key) & mask;
+		while (true) {
+			long slot = slots[j];
+			if (slot == 0) {
+				return -1;
+			}
+			if ((int) (slot >>> 32) == key && objects[j].equals(object)) {
+				return j;
+			}
+			j = (j + 1) & mask;
+		}
+	}
+
+	/**
+	 * Returns if the object is in the table
+	 *
+	 * @param object is the object to be searched
+	 * @return if the object is in the table
+	 */
+	public boolean contains(T object) {
+		return indexOf(object) >= 0;
+	}
+
+	/**
+	 * Returns the frequency of the object
+	 *
+	 * @param object is the object to be searched
+	 * @return the frequency of the object, or -1 if it is not in the table
+	 */
+	public int frequencyOf(T object) {
+		int j = indexOf(object);
+		return j < 0 ? -1 : (int) slots[j] - 1;
+	}
+
+	/**
+	 * Returns the number of indexes of the frozen table
+	 *
+	 * @return the number of indexes
+	 */
+	public int getCapacity() {
+		return slots.length;
+	}
+
+	/**
+	 * Returns the object at the given index
+	 *
+	 * @param index is the index of the frozen table
+	 * @return the object at the given index, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public T getObject(int index) {
+		return (T) objects[index];
+	}
+
+	/**
+	 * Returns the frequency of the object at the given index
+	 *
+	 * @param index is the index of the frozen table
+	 * @return the frequency of the object at the given index, or -1 if there is
+	 *         none
+	 */
+	public int getFrequency(int index) {
+		return (int) slots[index] - 1;
+	}
+
+	/**
+	 * Returns the number of objects in the table
+	 *
+	 * @return the number of objects
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the longest probe sequence of a lookup of a stored object
+	 *
+	 * @return the longest probe sequence
+	 */
+	public int getMaxProbe() {
+		return maxProbe;
+	}
+
+	/**
+	 * Returns the number of probes of a lookup of every stored object once
+	 *
+	 * @return the number of probes of the frozen table
+	 */
+	public long getFrozenProbs() {
+		return frozenProbs;
+	}
+
+	/**
+	 * Returns the hasher of the objects
+	 *
+	 * @return the hasher
+	 */
+	public Hasher getHasher() {
+		return hasher;
+	}
+
+	/**
+	 * Returns the table type of the hash table when it was frozen
+	 *
+	 * @return the hash table type
+	 */
+	public int getTableType() {
+		return tableType;
+	}
+
+	/**
+	 * Returns the name of the type of hashing of the hash table when it was
+	 * frozen
+	 *
+	 * @return the name of the type of hashing
+	 */
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * Returns the total inserts of the hash table when it was frozen
+	 *
+	 * @return the total number of inserts
+	 */
+	public long getTotalInsert() {
+		return totalInsert;
+	}
+
+	/**
+	 * Returns number of duplicates of the hash table when it was frozen
+	 *
+	 * @return number of duplicates
+	 */
+	public long getDuplicateCount() {
+		return duplicateCount;
+	}
+
+	/**
+	 * Returns the number of total probes of inserted objects of the hash table
+	 * when it was frozen
+	 *
+	 * @return the number of total probes
+	 */
+	public long getTotalProbs() {
+		return totalProbs;
+	}
+
+}
@@ -0,0 +1,579 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * HashBenchmark class measures insert throughput, hit and miss lookup latency
+ * and allocation rate of every probe type for the three input sources
+ * of HashTest, over the load factors of the README table. The Integer and
+ * Long sources also run IntHashTable and LongHashTable on the unboxed keys.
+ * With the hashers
+ * argument it prints the average probes of every hash function instead.
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public class HashBenchmark {
+
+	private static final double[] LOAD_FACTORS = { 0.5, 0.6, 0.7, 0.8, 0.9, 0.95, 0.98, 0.99 };
+	private static final int[] TABLE_TYPES = { 1, 2, 3, 4, SwissHashTable.TABLE_TYPE,
+			CuckooHashTable.TABLE_TYPE };
+	private static final int[] PRIMITIVE_TYPES = { 1, 2 }; // the probe types of IntHashTable and LongHashTable
+	private static final long SEED = 321;
+	// misses timed per run, as a linear miss on clustered keys walks the whole
+	// cluster
+	private static final int MISS_SAMPLE = 1024;
+
+	private static int warmup = 5;
+	private static int iterations = 10;
+
+	public static void main(String[] args) {
+		TwinPrimeGenerator primeNumber = new TwinPrimeGenerator(2);
+		int tableSize = primeNumber.getTwinPrime(95500, 96000);
+		if (args.length >= 1 && args[0].equals("hashers")) {
+			try {
+				if (args.length >= 2) {
+					tableSize = Integer.parseInt(args[1]);
+				}
+			} catch (NumberFormatException e) {
+				printUsage();
+				System.exit(1);
+			}
+			System.out.println("Table size: " + tableSize + ", average probes of each hash function");
+			compareHashers("Integer:java.util.Random", integerKeys(tableSize), tableSize);
+			compareHashers("Long:System.currentTimeMillis()", longKeys(tableSize), tableSize);
+			try {
+				compareHashers("String:File Name -> word-list", stringKeys(tableSize), tableSize);
+			} catch (IOException e) {
+				System.out.println("\nword-list not found, String source skipped");
+			}
+			return;
+		}
+		if (args.length >= 1 && args[0].equals("shards")) {
+			try {
+				if (args.length >= 2) {
+					tableSize = Integer.parseInt(args[1]);
+				}
+			} catch (NumberFormatException e) {
+				printUsage();
+				System.exit(1);
+			}
+			compareShards(tableSize);
+			return;
+		}
+		if (args.length >= 1 && args[0].equals("rebuild")) {
+			try {
+				if (args.length >= 2) {
+					tableSize = Integer.parseInt(args[1]);
+				}
+			} catch (NumberFormatException e) {
+				printUsage();
+				System.exit(1);
+			}
+			compareRebuilds(tableSize);
+			return;
+		}
+		try {
+			if (args.length >= 1) {
+				tableSize = Integer.parseInt(args[0]);
+			}
+			if (args.length >= 2) {
+				warmup = Integer.parseInt(args[1]);
+			}
+			if (args.length >= 3) {
+				iterations = Integer.parseInt(args[2]);
+			}
+		} catch (NumberFormatException e) {
+			printUsage();
+			System.exit(1);
+		}
+
+		System.out.println("Table size: " + tableSize + ", warmup: " + warmup + ", iterations: " + iterations);
+		benchmark("Integer:java.util.Random", integerKeys(tableSize), tableSize);
+		benchmark("Long:System.currentTimeMillis()", longKeys(tableSize), tableSize);
+		try {
+			benchmark("String:File Name -> word-list", stringKeys(tableSize), tableSize);
+		} catch (IOException e) {
+			System.out.println("\nword-list not found, String source skipped");
+		}
+	}
+
+	/**
+	 * Returns distinct random integers, twice the table size, the first half to
+	 * be inserted and the second half to be looked up as misses
+	 *
+	 * @param tableSize is the size of the hash table
+	 * @return the keys
+	 */
+	private static Object[] integerKeys(int tableSize) {
+		Random random = new Random(SEED);
+		Set<Integer> seen = new HashSet<Integer>();
+		Object[] keys = new Object[2 * tableSize];
+		int count = 0;
+		while (count < keys.length) {
+			int intRandom = random.nextInt();
+			if (seen.add(intRandom)) {
+				keys[count++] = intRandom;
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * Returns consecutive millisecond time stamps starting now, which are the
+	 * distinct keys HashTest inserts from System.currentTimeMillis()
+	 *
+	 * @param tableSize is the size of the hash table
+	 * @return the keys
+	 */
+	private static Object[] longKeys(int tableSize) {
+		long systemTime = System.currentTimeMillis();
+		Object[] keys = new Object[2 * tableSize];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = systemTime + i;
+		}
+		return keys;
+	}
+
+	/**
+	 * Returns the distinct words of the word-list for insertion followed by the
+	 * same words with a suffix to be looked up as misses
+	 *
+	 * @param tableSize is the size of the hash table
+	 * @return the keys
+	 * @throws IOException if the word-list cannot be read
+	 */
+	private static Object[] stringKeys(int tableSize) throws IOException {
+		Set<String> seen = new HashSet<String>();
+		List<String> words = new ArrayList<String>();
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get("word-list"))) {
+			String line;
+			while (words.size() < tableSize && (line = reader.readLine()) != null) {
+				if (seen.add(line)) {
+					words.add(line);
+				}
+			}
+		}
+		Object[] keys = new Object[2 * words.size()];
+		for (int i = 0; i < words.size(); i++) {
+			keys[i] = words.get(i);
+			keys[words.size() + i] = words.get(i) + "#miss";
+		}
+		return keys;
+	}
+
+	/**
+	 * Runs and prints every load factor and table type for one input source
+	 *
+	 * @param dataSource is the name of the input source
+	 * @param keys       is the keys to insert followed by the missing keys
+	 * @param tableSize  is the size of the hash table
+	 */
+	private static void benchmark(String dataSource, Object[] keys, int tableSize) {
+		System.out.println("\nData Source Type: " + dataSource);
+		System.out.println(" alpha\ttype\tavg probes\tns/insert\tns/hit\t\tns/miss\t\tbytes/insert");
+		int half = keys.length / 2;
+		int[] intKeys = keys.length > 0 && keys[0] instanceof Integer ? new int[keys.length] : null;
+		long[] longKeys = keys.length > 0 && keys[0] instanceof Long ? new long[keys.length] : null;
+		for (int k = 0; k < keys.length; k++) {
+			if (intKeys != null) {
+				intKeys[k] = (Integer) keys[k];
+			} else if (longKeys != null) {
+				longKeys[k] = (Long) keys[k];
+			}
+		}
+		for (double loadFactor : LOAD_FACTORS) {
+			int inputNumber = Math.min(half, (int) Math.ceil(loadFactor * tableSize));
+			for (int tableType : TABLE_TYPES) {
+				double[] result = run(keys, inputNumber, tableSize, tableType);
+				printRow(loadFactor, tableName(tableType), result);
+			}
+			for (int tableType : PRIMITIVE_TYPES) {
+				String name = ProbeType.of(tableType).getTableName();
+				if (intKeys != null) {
+					printRow(loadFactor, "int " + name, runInts(intKeys, inputNumber, tableSize, tableType));
+				} else if (longKeys != null) {
+					printRow(loadFactor, "long " + name, runLongs(longKeys, inputNumber, tableSize, tableType));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Prints one row of the benchmark
+	 *
+	 * @param loadFactor is the load factor
+	 * @param name       is the name of the table
+	 * @param result     is the average probes, ns per insert, ns per hit, ns per
+	 *                   miss and bytes allocated per insert
+	 */
+	private static void printRow(double loadFactor, String name, double[] result) {
+		System.out.printf(" %s\t%s\t%.5f\t\t%.1f\t\t%.1f\t\t%.1f\t\t%.1f%n", loadFactor, name, result[0],
+				result[1], result[2], result[3], result[4]);
+	}
+
+	/**
+	 * Prints the average number of probes of every hash function for each load
+	 * factor and table type of one input source. The probes do not depend on
+	 * timing, so each configuration is run once.
+	 *
+	 * @param dataSource is the name of the input source
+	 * @param keys       is the keys to insert followed by the missing keys
+	 * @param tableSize  is the size of the hash table
+	 */
+	private static void compareHashers(String dataSource, Object[] keys, int tableSize) {
+		System.out.println("\nData Source Type: " + dataSource);
+		StringBuilder header = new StringBuilder(" alpha\ttype\t");
+		for (HashFunction hashFunction : HashFunction.values()) {
+			header.append(String.format("\t%-12s", hashFunction.getFunctionName()));
+		}
+		System.out.println(header);
+		int half = keys.length / 2;
+		for (double loadFactor : LOAD_FACTORS) {
+			int inputNumber = Math.min(half, (int) Math.ceil(loadFactor * tableSize));
+			for (int tableType : TABLE_TYPES) {
+				StringBuilder line = new StringBuilder(String.format(" %s\t%-10s", loadFactor,
+						tableName(tableType)));
+				for (HashFunction hashFunction : HashFunction.values()) {
+					OpenHashTable<Object> hashTable = newTable(tableSize, tableType, hashFunction);
+					for (int k = 0; k < inputNumber; k++) {
+						hashTable.insert(keys[k]);
+					}
+					double probes = ((double) hashTable.getTotalProbs()) / (double) (hashTable.getTotalInsert());
+					line.append(String.format("\t%-12.5f", probes));
+				}
+				System.out.println(line);
+			}
+		}
+	}
+
+	/**
+	 * Prints the time per insert of a counting job, 8 inserts per index drawn
+	 * from distinct random integers filling half of the table, into one
+	 * HashTable and into a ShardedHashTable of 1, 2, 4, ... shards up to the
+	 * number of processors. The time of a sharded table includes finish, and
+	 * each sharded table is closed after it is timed.
+	 *
+	 * @param tableSize is the size of the hash table
+	 */
+	private static void compareShards(int tableSize) {
+		Object[] keys = integerKeys(tableSize);
+		Random random = new Random(SEED);
+		Object[] stream = new Object[8 * tableSize];
+		for (int i = 0; i < stream.length; i++) {
+			stream[i] = keys[random.nextInt(tableSize / 2)];
+		}
+		int processors = Runtime.getRuntime().availableProcessors();
+		System.out.println("Table size: " + tableSize + ", inserts: " + stream.length + ", processors: " + processors);
+		System.out.println(" shards	ns/insert	avg probes	duplicates");
+		double best = Double.MAX_VALUE;
+		HashTable<Object> hashTable = null;
+		for (int i = 0; i < warmup + iterations; i++) {
+			long start = System.nanoTime();
+			hashTable = new HashTable<Object>(tableSize, 1);
+			for (Object key : stream) {
+				hashTable.insert(key);
+			}
+			best = Math.min(best, (double) (System.nanoTime() - start) / stream.length);
+		}
+		System.out.printf(" none	%.1f		%.5f		%d%n", best,
+				((double) hashTable.getTotalProbs()) / (double) (hashTable.getTotalInsert()),
+				hashTable.getDuplicateCount());
+		for (int shardCount = 1; shardCount <= processors; shardCount *= 2) {
+			best = Double.MAX_VALUE;
+			ShardedHashTable<Object> sharded = null;
+			try {
+				for (int i = 0; i < warmup + iterations; i++) {
+					long start = System.nanoTime();
+					try (ShardedHashTable<Object> table = new ShardedHashTable<Object>(shardCount, tableSize, 1)) {
+						table.insertAll(stream);
+						table.finish();
+						best = Math.min(best, (double) (System.nanoTime() - start) / stream.length);
+						sharded = table; // finished, so still readable once closed
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			System.out.printf(" %d	%.1f		%.5f		%d%n", shardCount, best,
+					((double) sharded.getTotalProbs()) / (double) (sharded.getTotalInsert()),
+					sharded.getDuplicateCount());
+		}
+	}
+
+	/**
+	 * Prints the time to move a table of every probe type filled to load 0.9
+	 * into a table of twice the size, by inserting every object into a new
+	 * HashTable and by HashTable.rebuild on one thread and on the common pool
+	 *
+	 * @param tableSize is the size of the hash table
+	 */
+	private static void compareRebuilds(int tableSize) {
+		Object[] keys = integerKeys(tableSize);
+		int inputNumber = (int) Math.ceil(0.9 * tableSize);
+		TwinPrimeGenerator primeNumber = new TwinPrimeGenerator(2);
+		int newSize = primeNumber.getTwinPrime(2 * tableSize, 4 * tableSize);
+		ForkJoinPool single = new ForkJoinPool(1);
+		ForkJoinPool common = ForkJoinPool.commonPool();
+		System.out.println("Table size: " + tableSize + " to " + newSize + ", objects: " + inputNumber
+				+ ", common pool parallelism: " + common.getParallelism());
+		System.out.println(" type		insert ms	rebuild 1 ms	rebuild ms");
+		for (int tableType = 1; tableType <= 4; tableType++) {
+			double[] best = { Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE };
+			for (int i = 0; i < warmup + iterations; i++) {
+				for (int mode = 0; mode < best.length; mode++) {
+					HashTable<Object> hashTable = new HashTable<Object>(tableSize, tableType);
+					for (int k = 0; k < inputNumber; k++) {
+						hashTable.insert(keys[k]);
+					}
+					long start = System.nanoTime();
+					if (mode == 0) {
+						HashTable<Object> larger = new HashTable<Object>(newSize, tableType);
+						for (int j = 0; j < tableSize; j++) {
+							HashObject<Object> hashObject = hashTable.getTableContent(j);
+							if (hashObject != null) {
+								larger.insert(hashObject.getObject(), hashObject.getFrequency() + 1);
+							}
+						}
+					} else {
+						hashTable.rebuild(newSize, tableType, mode == 1 ? single : common);
+					}
+					best[mode] = Math.min(best[mode], (System.nanoTime() - start) / 1e6);
+				}
+			}
+			System.out.printf(" %-10s	%.2f		%.2f		%.2f%n", tableName(tableType), best[0], best[1], best[2]);
+		}
+		single.shutdown();
+	}
+
+	/**
+	 * Runs the warmup and measured iterations of one configuration and returns
+	 * the best time of each operation
+	 *
+	 * @param keys        is the keys to insert followed by the missing keys
+	 * @param inputNumber is the number of keys to insert
+	 * @param tableSize   is the size of the hash table
+	 * @param tableType   is the type of hashing
+	 * @return the average probes, ns per insert, ns per hit, ns per miss and
+	 *         bytes allocated per insert
+	 */
+	private static double[] run(Object[] keys, int inputNumber, int tableSize, int tableType) {
+		int half = keys.length / 2;
+		double[] best = { 0, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE };
+		int found = 0; // consumed so the lookups cannot be removed as dead code
+		for (int i = 0; i < warmup + iterations; i++) {
+			OpenHashTable<Object> hashTable = newTable(tableSize, tableType,
+					tableType == SwissHashTable.TABLE_TYPE ? HashFunction.MURMUR3 : HashFunction.JAVA);
+			long allocated = allocatedBytes(); // the empty table is not counted as inserts
+			long start = System.nanoTime();
+			for (int k = 0; k < inputNumber; k++) {
+				hashTable.insert(keys[k]);
+			}
+			long insertTime = System.nanoTime() - start;
+			long insertBytes = allocatedBytes() - allocated;
+
+			start = System.nanoTime();
+			for (int k = 0; k < inputNumber; k++) {
+				if (hashTable.search(keys[k]) != null) {
+					found++;
+				}
+			}
+			long hitTime = System.nanoTime() - start;
+
+			int misses = Math.min(MISS_SAMPLE, Math.min(inputNumber, keys.length - half));
+			start = System.nanoTime();
+			for (int k = 0; k < misses; k++) {
+				if (hashTable.search(keys[half + k]) != null) {
+					found++;
+				}
+			}
+			long missTime = System.nanoTime() - start;
+
+			if (i >= warmup) {
+				best[0] = ((double) hashTable.getTotalProbs()) / (double) (hashTable.getTotalInsert());
+				best[1] = Math.min(best[1], (double) insertTime / inputNumber);
+				best[2] = Math.min(best[2], (double) hitTime / inputNumber);
+				best[3] = Math.min(best[3], (double) missTime / Math.max(1, misses));
+				best[4] = Math.min(best[4], (double) insertBytes / inputNumber);
+			}
+		}
+		if (found < 0) {
+			System.out.println(found);
+		}
+		return best;
+	}
+
+	/**
+	 * Runs the warmup and measured iterations of one configuration of
+	 * IntHashTable, as run does for the object tables
+	 *
+	 * @param keys        is the keys to insert followed by the missing keys
+	 * @param inputNumber is the number of keys to insert
+	 * @param tableSize   is the size of the hash table
+	 * @param tableType   is 1 for linear and 2 for double
+	 * @return the average probes, ns per insert, ns per hit, ns per miss and
+	 *         bytes allocated per insert
+	 */
+	private static double[] runInts(int[] keys, int inputNumber, int tableSize, int tableType) {
+		int half = keys.length / 2;
+		double[] best = { 0, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE };
+		int found = 0; // consumed so the lookups cannot be removed as dead code
+		for (int i = 0; i < warmup + iterations; i++) {
+			IntHashTable hashTable = new IntHashTable(tableSize, tableType);
+			long allocated = allocatedBytes();
+			long start = System.nanoTime();
+			for (int k = 0; k < inputNumber; k++) {
+				hashTable.insert(keys[k]);
+			}
+			long insertTime = System.nanoTime() - start;
+			long insertBytes = allocatedBytes() - allocated;
+
+			start = System.nanoTime();
+			for (int k = 0; k < inputNumber; k++) {
+				found += hashTable.search(keys[k]) >>> 31;
+			}
+			long hitTime = System.nanoTime() - start;
+
+			int misses = Math.min(MISS_SAMPLE, Math.min(inputNumber, keys.length - half));
+			start = System.nanoTime();
+			for (int k = 0; k < misses; k++) {
+				found += hashTable.search(keys[half + k]) >>> 31;
+			}
+			long missTime = System.nanoTime() - start;
+
+			if (i >= warmup) {
+				best[0] = ((double) hashTable.getTotalProbs()) / (double) (hashTable.getTotalInsert());
+				best[1] = Math.min(best[1], (double) insertTime / inputNumber);
+				best[2] = Math.min(best[2], (double) hitTime / inputNumber);
+				best[3] = Math.min(best[3], (double) missTime / Math.max(1, misses));
+				best[4] = Math.min(best[4], (double) insertBytes / inputNumber);
+			}
+		}
+		if (found < 0) {
+			System.out.println(found);
+		}
+		return best;
+	}
+
+	/**
+	 * Runs the warmup and measured iterations of one configuration of
+	 * LongHashTable, as run does for the object tables
+	 *
+	 * @param keys        is the keys to insert followed by the missing keys
+	 * @param inputNumber is the number of keys to insert
+	 * @param tableSize   is the size of the hash table
+	 * @param tableType   is 1 for linear and 2 for double
+	 * @return the average probes, ns per insert, ns per hit, ns per miss and
+	 *         bytes allocated per insert
+	 */
+	private static double[] runLongs(long[] keys, int inputNumber, int tableSize, int tableType) {
+		int half = keys.length / 2;
+		double[] best = { 0, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE };
+		int found = 0; // consumed so the lookups cannot be removed as dead code
+		for (int i = 0; i < warmup + iterations; i++) {
+			LongHashTable hashTable = new LongHashTable(tableSize, tableType);
+			long allocated = allocatedBytes();
+			long start = System.nanoTime();
+			for (int k = 0; k < inputNumber; k++) {
+				hashTable.insert(keys[k]);
+			}
+			long insertTime = System.nanoTime() - start;
+			long insertBytes = allocatedBytes() - allocated;
+
+			start = System.nanoTime();
+			for (int k = 0; k < inputNumber; k++) {
+				found += hashTable.search(keys[k]) >>> 31;
+			}
+			long hitTime = System.nanoTime() - start;
+
+			int misses = Math.min(MISS_SAMPLE, Math.min(inputNumber, keys.length - half));
+			start = System.nanoTime();
+			for (int k = 0; k < misses; k++) {
+				found += hashTable.search(keys[half + k]) >>> 31;
+			}
+			long missTime = System.nanoTime() - start;
+
+			if (i >= warmup) {
+				best[0] = ((double) hashTable.getTotalProbs()) / (double) (hashTable.getTotalInsert());
+				best[1] = Math.min(best[1], (double) insertTime / inputNumber);
+				best[2] = Math.min(best[2], (double) hitTime / inputNumber);
+				best[3] = Math.min(best[3], (double) missTime / Math.max(1, misses));
+				best[4] = Math.min(best[4], (double) insertBytes / inputNumber);
+			}
+		}
+		if (found < 0) {
+			System.out.println(found);
+		}
+		return best;
+	}
+
+	/**
+	 * Returns an empty hash table of the given type, the Swiss or cuckoo table
+	 * for their table types and a HashTable for the probe types
+	 *
+	 * @param tableSize is the size of the hash table
+	 * @param tableType is the type of hashing
+	 * @param hasher    is the hasher of the objects
+	 * @return the hash table
+	 */
+	private static OpenHashTable<Object> newTable(int tableSize, int tableType, Hasher hasher) {
+		if (tableType == SwissHashTable.TABLE_TYPE) {
+			return new SwissHashTable<Object>(tableSize, hasher);
+		}
+		if (tableType == CuckooHashTable.TABLE_TYPE) {
+			return new CuckooHashTable<Object>(tableSize, hasher);
+		}
+		return new HashTable<Object>(tableSize, tableType, 0, hasher);
+	}
+
+	/**
+	 * Returns the name of the given type of hashing
+	 *
+	 * @param tableType is the type of hashing
+	 * @return the name of the type of hashing
+	 */
+	private static String tableName(int tableType) {
+		if (tableType == SwissHashTable.TABLE_TYPE) {
+			return "Swiss";
+		}
+		return tableType == CuckooHashTable.TABLE_TYPE ? "Cuckoo" : ProbeType.of(tableType).getTableName();
+	}
+
+	/**
+	 * Returns the bytes allocated by the current thread so far, or 0 if the JVM
+	 * does not report it
+	 *
+	 * @return the allocated bytes
+	 */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	/**
+	 * Prints usage message on the console.
+	 */
+	private static void printUsage() {
+		System.out.println("Usage: $ java HashBenchmark <table size> <warmup> <iterations>");
+		System.out.println("all arguments are optional, the defaults are the HashTest table size, 5 and 10");
+		System.out.println("       $ java HashBenchmark hashers <table size>");
+		System.out.println("prints the average probes of every hash function instead of the timings");
+		System.out.println("       $ java HashBenchmark shards <table size>");
+		System.out.println("prints the insert time of a counting job on sharded hash tables");
+		System.out.println("       $ java HashBenchmark rebuild <table size>");
+		System.out.println("prints the time to rebuild a table of every probe type at twice the size");
+	}
+
+}
@@ -0,0 +1,281 @@
+/**
+ * HashFunction enum is the hashers a hash table can use. JAVA keeps the hash
+ * code of the object as it is, the hash of the original assignment. MURMUR3
+ * and WYHASH mix every bit of the key into every bit of the hash key, so keys
+ * which differ only in a few bits, like consecutive time stamps, are spread
+ * over the whole table.
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public enum HashFunction implements Hasher {
+
+	/**
+	 * The hash code of the object, and the String hash code of characters
+	 */
+	JAVA(0, "Java") {
+		@Override
+		public int hash(Object object) {
+			return object.hashCode();
+		}
+
+		@Override
+		public int hash(CharSequence chars) {
+			int hash = 0;
+			for (int i = 0; i < chars.length(); i++) {
+				hash = 31 * hash + chars.charAt(i);
+			}
+			return hash;
+		}
+
+		@Override
+		public int hash(byte[] bytes, int offset, int length) {
+			int hash = 0;
+			for (int i = offset; i < offset + length; i++) {
+				hash = 31 * hash + (bytes[i] & 0xff);
+			}
+			return hash;
+		}
+	},
+
+	/**
+	 * The Murmur3 finalizer of an Integer or Long, and Murmur3 x86 32 bit of
+	 * characters taken two at a time
+	 */
+	MURMUR3(1, "Murmur3") {
+		@Override
+		public int hash(Object object) {
+			if (object instanceof Long) {
+				long mixed = fmix64((Long) object); // all 64 bits, not the folded hash code
+				return (int) (mixed ^ (mixed >>> 32));
+			}
+			if (object instanceof CharSequence) {
+				return hash((CharSequence) object);
+			}
+			return fmix32(object.hashCode());
+		}
+
+		@Override
+		public int hash(CharSequence chars) {
+			int length = chars.length();
+			int hash = 0;
+			int i = 1;
+			for (; i < length; i += 2) {
+				hash = murmurRound(hash, chars.charAt(i - 1) | (chars.charAt(i) << 16));
+			}
+			if (i == length) {
+				hash ^= murmurBlock(chars.charAt(i - 1));
+			}
+			return fmix32(hash ^ (2 * length));
+		}
+
+		@Override
+		public int hash(byte[] bytes, int offset, int length) {
+			int hash = 0;
+			int i = 1;
+			for (; i < length; i += 2) {
+				hash = murmurRound(hash, (bytes[offset + i - 1] & 0xff) | ((bytes[offset + i] & 0xff) << 16));
+			}
+			if (i == length) {
+				hash ^= murmurBlock(bytes[offset + i - 1] & 0xff);
+			}
+			return fmix32(hash ^ (2 * length));
+		}
+	},
+
+	/**
+	 * The wyhash multiply mix of an Integer or Long, and of characters taken
+	 * four at a time. Java has no unsigned 128 bit multiply before Java 18, so
+	 * the signed high half is used and the values differ from the C wyhash.
+	 */
+	WYHASH(2, "Wyhash") {
+		@Override
+		public int hash(Object object) {
+			if (object instanceof Long) {
+				return fold(wymix((Long) object));
+			}
+			if (object instanceof Integer) {
+				return fold(wymix((Integer) object));
+			}
+			if (object instanceof CharSequence) {
+				return hash((CharSequence) object);
+			}
+			return fold(wymix(object.hashCode()));
+		}
+
+		@Override
+		public int hash(CharSequence chars) {
+			int length = chars.length();
+			long hash = WY_P0 ^ length;
+			long block = 0;
+			int i = 0;
+			for (; i < length; i++) {
+				block |= (long) chars.charAt(i) << ((i & 3) << 4);
+				if ((i & 3) == 3) {
+					hash = mum(hash ^ block, WY_P1);
+					block = 0;
+				}
+			}
+			if ((i & 3) != 0) {
+				hash = mum(hash ^ block, WY_P1);
+			}
+			return fold(mum(hash ^ length, WY_P0));
+		}
+
+		@Override
+		public int hash(byte[] bytes, int offset, int length) {
+			long hash = WY_P0 ^ length;
+			long block = 0;
+			int i = 0;
+			for (; i < length; i++) {
+				block |= (long) (bytes[offset + i] & 0xff) << ((i & 3) << 4);
+				if ((i & 3) == 3) {
+					hash = mum(hash ^ block, WY_P1);
+					block = 0;
+				}
+			}
+			if ((i & 3) != 0) {
+				hash = mum(hash ^ block, WY_P1);
+			}
+			return fold(mum(hash ^ length, WY_P0));
+		}
+	};
+
+	private static final long WY_P0 = 0xa0761d6478bd642fL;
+	private static final long WY_P1 = 0xe7037ed1a0b428dbL;
+
+	private final int code;
+	private final String functionName;
+
+	/**
+	 * Constructor
+	 *
+	 * @param code         is the number of the hash function in snapshots
+	 * @param functionName is the name printed for the hash function
+	 */
+	HashFunction(int code, String functionName) {
+		this.code = code;
+		this.functionName = functionName;
+	}
+
+	/**
+	 * Returns the Murmur3 32 bit finalizer of the value
+	 *
+	 * @param hash is the value to be mixed
+	 * @return the mixed value
+	 */
+	static int fmix32(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		hash ^= hash >>> 16;
+		return hash;
+	}
+
+	/**
+	 * Returns the Murmur3 64 bit finalizer of the value
+	 *
+	 * @param key is the value to be mixed
+	 * @return the mixed value
+	 */
+	static long fmix64(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return key;
+	}
+
+	/**
+	 * Returns a 32 bit block of Murmur3 mixed for the hash
+	 *
+	 * @param block is the block of the key
+	 * @return the mixed block
+	 */
+	private static int murmurBlock(int block) {
+		block *= 0xcc9e2d51;
+		block = Integer.rotateLeft(block, 15);
+		return block * 0x1b873593;
+	}
+
+	/**
+	 * Returns the Murmur3 hash after one more 32 bit block of the key
+	 *
+	 * @param hash  is the hash so far
+	 * @param block is the next block of the key
+	 * @return the new hash
+	 */
+	private static int murmurRound(int hash, int block) {
+		hash ^= murmurBlock(block);
+		hash = Integer.rotateLeft(hash, 13);
+		return hash * 5 + 0xe6546b64;
+	}
+
+	/**
+	 * Returns the wyhash multiply mix of two values, the high and low halves of
+	 * their product xored
+	 *
+	 * @param a is the first value
+	 * @param b is the second value
+	 * @return the mixed value
+	 */
+	private static long mum(long a, long b) {
+		return (a * b) ^ Math.multiplyHigh(a, b);
+	}
+
+	/**
+	 * Returns the wyhash mix of one value
+	 *
+	 * @param value is the value to be mixed
+	 * @return the mixed value
+	 */
+	private static long wymix(long value) {
+		return mum(value ^ WY_P0, value ^ WY_P1);
+	}
+
+	/**
+	 * Returns the 64 bit hash folded to 32 bits
+	 *
+	 * @param hash is the 64 bit hash
+	 * @return the 32 bit hash key
+	 */
+	private static int fold(long hash) {
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	/**
+	 * Returns the number of the hash function, stored in snapshots
+	 *
+	 * @return the number of the hash function
+	 */
+	public int getCode() {
+		return code;
+	}
+
+	/**
+	 * Returns the name of the hash function
+	 *
+	 * @return the name of the hash function
+	 */
+	public String getFunctionName() {
+		return functionName;
+	}
+
+	/**
+	 * Returns the hash function of the given number
+	 *
+	 * @param code is the number of the hash function
+	 * @return the hash function
+	 */
+	public static HashFunction of(int code) {
+		for (HashFunction hashFunction : values()) {
+			if (hashFunction.code == code) {
+				return hashFunction;
+			}
+		}
+		throw new IllegalArgumentException("Unknown hash function " + code);
+	}
+
+}
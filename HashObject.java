@@ -9,6 +9,7 @@ public class HashObject<T> {
 	Object object;
 	int frequency;
 	int probCount;
+	int key; // hash code of the object, computed once so probing never calls hashCode again
 	
 
 	/**
@@ -20,6 +21,19 @@ public class HashObject<T> {
 		this.object = object;
 		this.frequency =0;
 		this.probCount =0;
+		this.key = object.hashCode();
+	}
+	
+	/**
+	 * Constructor
+	 * @param object the object to be inserted in the hash table
+	 * @param key the hash key of the object from the hasher of the hash table
+	 */
+	public HashObject(Object object, int key) {
+		this.object = object;
+		this.frequency = 0;
+		this.probCount = 0;
+		this.key = key;
 	}
 	
 	/**
@@ -33,6 +47,21 @@ public class HashObject<T> {
 		this.object = object;
 		this.frequency = frequency;
 		this.probCount = probCount;
+		this.key = object.hashCode();
+	}
+
+	/**
+	 * Constructor
+	 * @param frequency of same hash object in the hash table
+	 * @param probCount number of probes of this hash object before entry in the hash table
+	 * @param object the object to be inserted in the hash table
+	 * @param key the hash key of the object from the hasher of the hash table
+	 */
+	public HashObject(int frequency, int probCount, Object object, int key) {
+		this.object = object;
+		this.frequency = frequency;
+		this.probCount = probCount;
+		this.key = key;
 	}
 
 	/**
@@ -49,6 +78,7 @@ public class HashObject<T> {
 	 */
 	public void setObject(Object object) {
 		this.object = object;
+		this.key = object.hashCode();
 	}
 
 	/**
@@ -88,7 +118,7 @@ public class HashObject<T> {
 	 * @return the hash code of the object
 	 */
 	public int getKey() {
-		return object.hashCode();
+		return key;
 	}
 	
 	/**
@@ -1,4 +1,5 @@
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * HashTable class is the hash table where generic hash objects are inserted,
@@ -8,10 +9,12 @@ import java.util.Arrays;
  *
  * @param <T>
  */
-public class HashTable<T> {
+public class HashTable<T> implements OpenHashTable<T> {
 
 	private HashObject<T>[] hashTable;
-	private int tableType; // 1 for linear, 2 for double
+	private int tableType; // 1 for linear, 2 for double, 3 for quadratic, 4 for Robin Hood
+	private ProbeType probeType;
+	private final Hasher hasher; // hash key of every object, before the primary and secondary hash
 	private int tableSize;
 
 	private enum indexType {
@@ -19,9 +22,28 @@ public class HashTable<T> {
 	};
 
 	private indexType indexCondition[];
-	private int totalProbs; // for full hashTable for each of the insertion
-	private int totalInsert;
-	private int duplicateCount;
+	private long totalProbs; // for full hashTable for each of the insertion
+	private long totalInsert;
+	private long duplicateCount;
+
+	private final ProbeHistogram insertProbes = new ProbeHistogram(); // probes of each new object
+	private final ProbeHistogram lookupProbes = new ProbeHistogram(); // probes of each search
+
+	// number of old slots moved to the new table on every insert while resizing
+	private static final int MIGRATE_PER_INSERT = 16;
+	private static final int BATCH_SIZE = 64; // objects hashed together by insertAll
+
+	private double maxLoadFactor; // 0 means the table never grows
+	private HashObject<T>[] oldTable; // null unless a resize is in progress
+	private indexType oldCondition[];
+	private int oldTableSize;
+	private int migrateIndex; // next slot of the old table to be moved
+
+	private int liveCount; // objects in the table now, totalInsert less the deleted ones
+	private int maxProbe; // longest probe sequence in the current table, for Robin Hood lookups
+	private int oldMaxProbe;
+	private int deletedCount; // DELETED indexes in the current table
+	private double tombstoneThreshold; // ratio of DELETED indexes which starts a rebuild
 
 	/**
 	 * Constructor
@@ -29,29 +51,86 @@ public class HashTable<T> {
 	 * @param tableSize is the table size of the hash table
 	 * @param tableType is the hash object's key type
 	 */
-	@SuppressWarnings("unchecked")
 	public HashTable(int tableSize, int tableType) {
-		hashTable = (HashObject<T>[]) new HashObject[tableSize];
+		this(tableSize, tableType, 0);
+	}
+
+	/**
+	 * Constructor of a hash table which grows to the next twin prime once the
+	 * load factor passes the given maximum
+	 * 
+	 * @param tableSize     is the table size of the hash table
+	 * @param tableType     is the hash object's key type
+	 * @param maxLoadFactor is the load factor after which the table is resized, 0
+	 *                      keeps the table size fixed
+	 */
+	public HashTable(int tableSize, int tableType, double maxLoadFactor) {
+		this(tableSize, tableType, maxLoadFactor, HashFunction.JAVA);
+	}
+
+	/**
+	 * Constructor of a hash table which hashes its objects with the given hasher
+	 * 
+	 * @param tableSize     is the table size of the hash table
+	 * @param tableType     is the hash object's key type
+	 * @param maxLoadFactor is the load factor after which the table is resized, 0
+	 *                      keeps the table size fixed
+	 * @param hasher        is the hasher of the objects, HashFunction.JAVA for
+	 *                      their hash code
+	 */
+	public HashTable(int tableSize, int tableType, double maxLoadFactor, Hasher hasher) {
+		if (maxLoadFactor < 0 || maxLoadFactor >= 1) {
+			throw new IllegalArgumentException("Max load factor should be 0 or between 0 and 1");
+		}
 		this.tableType = tableType;
+		this.probeType = ProbeType.of(tableType);
+		this.hasher = hasher;
 		this.tableSize = tableSize;
+		this.maxLoadFactor = maxLoadFactor;
 		this.totalProbs = 0;
 		this.totalInsert = 0;
 		this.duplicateCount = 0;
-		indexCondition = new indexType[tableSize]; // do we need to initialize a the hashObjects here : no
-		for (int i = 0; i < tableSize; i++) {
-			indexCondition[i] = indexType.NIL;
+		this.liveCount = 0;
+		this.deletedCount = 0;
+		this.tombstoneThreshold = 0.25;
+		this.hashTable = newTable(tableSize);
+		this.indexCondition = newCondition(tableSize);
+	}
+
+	/**
+	 * Returns a new empty array of hash objects
+	 * 
+	 * @param size is the size of the array
+	 * @return the new array
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static <T> HashObject<T>[] newTable(int size) {
+		return (HashObject<T>[]) new HashObject[size];
+	}
+
+	/**
+	 * Returns a new array of index conditions with every index set to NIL
+	 * 
+	 * @param size is the size of the array
+	 * @return the new array
+	 */
+	private static indexType[] newCondition(int size) {
+		indexType condition[] = new indexType[size]; // do we need to initialize a the hashObjects here : no
+		for (int i = 0; i < size; i++) {
+			condition[i] = indexType.NIL;
 		}
+		return condition;
 	}
 
 	/**
 	 * Returns the hash value of modulus operation on hash key of hash objects
 	 * 
-	 * @param hashObject is the hash object
-	 * @param tableSize  is the size of the hash table
+	 * @param key       is the hash key of the hash object
+	 * @param tableSize is the size of the hash table
 	 * @return the hash value from modulus operation on hash key
 	 */
-	private int modOperation(HashObject<T> hashObject, int tableSize) {
-		int hashValue = hashObject.getKey() % tableSize;
+	private static int modOperation(int key, int tableSize) {
+		int hashValue = key % tableSize;
 		if (hashValue < 0) {
 			hashValue += tableSize;
 		}
@@ -59,103 +138,809 @@ public class HashTable<T> {
 	}
 
 	/**
-	 * Returns value of primary hash function of the object key
+	 * Returns value of primary hash function of the object key, which is the
+	 * first index of its probe sequence
 	 * 
-	 * @param hashObject is the object to be hashed in the hash table
+	 * @param key       is the hash key of the object
+	 * @param tableSize is the size of the probed table
 	 * @return the primary hash value of the key
 	 */
-	private int primaryHash(HashObject<T> hashObject) {
-		return modOperation(hashObject, this.tableSize);
+	private static int primaryHash(int key, int tableSize) {
+		return modOperation(key, tableSize);
 	}
 
 	/**
-	 * Returns the secondary hash value of the object key
+	 * Inserts an object to the hash table
 	 * 
-	 * @param hashObject is the object to be hashed in the hash table
-	 * @return the secondary hash value of the key
+	 * @param object is the object to hashed in the hash table
 	 */
-	private int secondaryHash(HashObject<T> hashObject) { // vary for different double hashing
-		return 1 + modOperation(hashObject, this.tableSize - 2); // project
+	public void insert(T object) {
+		insert(object, hasher.hash(object), 1);
 	}
 
 	/**
-	 * Returns hash table index for double hashing
+	 * Inserts an object the given number of times in one probe sequence. The
+	 * frequency, duplicates, probes and placement are the same as inserting it
+	 * count times one after another.
 	 * 
-	 * @param hashObject is the object to be hashed in the hash table
-	 * @param index      is the index of table from where the hash index is
-	 *                   generated using hash functions
-	 * @return the hash table index for double hashing
+	 * @param object is the object to hashed in the hash table
+	 * @param count  is the number of times the object is inserted
 	 */
-	private int doubleHashIndex(HashObject<T> hashObject, int index) { // mod operation returned for both of them is
-																		// positive
-		return ((primaryHash(hashObject) + index * (secondaryHash(hashObject))) % this.tableSize);
+	public void insert(T object, int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException("Count should be at least 1");
+		}
+		insert(object, hasher.hash(object), count);
+		if (oldTable != null && count > 1) {
+			// each of the count - 1 duplicate inserts would have moved old slots
+			migrateSlots((int) Math.min((long) MIGRATE_PER_INSERT * (count - 1), oldTableSize));
+		}
 	}
 
 	/**
-	 * Returns the hash table index for linear hashing
+	 * Inserts the object as one more duplicate only if it is already in the hash
+	 * table, in one probe sequence. A new object is not inserted.
 	 * 
-	 * @param hashObject is the object to be hashed in the hash table
-	 * @param index      is the index of the table from where the hash index is
-	 *                   generated using hash functions
-	 * @return the hash table index for linear hashing
+	 * @param object is the object to be counted
+	 * @return if the object was in the hash table
 	 */
-	private int linearHashIndex(HashObject<T> hashObject, int index) {
-		return ((primaryHash(hashObject) + index) % this.tableSize);
+	public boolean insertDuplicate(T object) {
+		int key = hasher.hash(object);
+		int j = indexOf(find(object, key, hashTable, indexCondition, tableSize, maxProbe));
+		if (oldTable == null) {
+			if (j < 0) {
+				return false;
+			}
+			hashTable[j].setFrequency(hashTable[j].getFrequency() + 1);
+			duplicateCount++;
+			return true;
+		}
+		if (j < 0 && indexOf(find(object, key, oldTable, oldCondition, oldTableSize, oldMaxProbe)) < 0) {
+			return false;
+		}
+		insert(object, key, 1); // moves old slots like any insert while growing
+		return true;
 	}
 
 	/**
-	 * Inserts an object to the hash table
+	 * Inserts an object whose hash key is already computed. The hash object is
+	 * only made when the object is new, so a duplicate allocates nothing.
 	 * 
 	 * @param object is the object to hashed in the hash table
+	 * @param key    is the hash key of the object
+	 * @param count  is the number of times the object is inserted, all but the
+	 *               first of them duplicates if the object is new
 	 */
-	public void insert(T object) {
+	private void insert(T object, int key, int count) {
 		int localCount = 0;
-		HashObject<T> hashObject = new HashObject<T>(object);
-		int index = 0;
+		if (oldTable != null) {
+			migrateSlots(MIGRATE_PER_INSERT);
+			if (oldTable != null && moveDuplicate(object, key, count)) {
+				return;
+			}
+		}
+		if (probeType == ProbeType.ROBIN_HOOD) {
+			insertRobinHood(object, key, count);
+			return;
+		}
+		int step = probeType.firstStep(key, tableSize); // probes move by adding the step, no modulus per probe
+		int j = primaryHash(key, tableSize);
+		int free = -1; // first deleted index, reused if the object is not found further on
+		int freeCount = 0;
 		do {
-			int j = 0; // will change depending on index
+			localCount++;
+			if (indexCondition[j] == indexType.NIL) {
+				if (free < 0) {
+					free = j;
+					freeCount = localCount;
+				}
+				break;
+			} else if (indexCondition[j] == indexType.DELETED) {
+				if (free < 0) {
+					free = j;
+					freeCount = localCount;
+				}
+			} else if (hashTable[j].getKey() == key && hashTable[j].getObject().equals(object)) {
+				// the stored key is cached, so equals is only called when the hash codes match
+				hashTable[j].setFrequency(hashTable[j].getFrequency() + count);
+				duplicateCount += count;
+				return;
+			}
+			j += step;
+			if (j >= tableSize) {
+				j -= tableSize;
+			}
+			step = probeType.nextStep(step, tableSize);
+		} while (localCount < tableSize);
+		if (free < 0) {
+			// return -1;
+			return;
+		}
+		if (indexCondition[free] == indexType.DELETED) {
+			deletedCount--;
+		}
+		HashObject<T> hashObject = new HashObject<T>(object, key);
+		hashObject.setFrequency(count - 1);
+		duplicateCount += count - 1;
+		hashTable[free] = hashObject;
+		indexCondition[free] = indexType.OCCUPIED;
+		// hashTable[j].incrementFrequency(); don want to make duplicate
+		totalInsert++;
+		liveCount++;
+		totalProbs = totalProbs + freeCount;// real insertion
+		insertProbes.record(freeCount);
+		hashObject.setProbCount(freeCount); // each insertion e ae poriman probing hoise
+		if (maxLoadFactor > 0 && liveCount > maxLoadFactor * tableSize) {
+			resize();
+		}
+	}
+
+	/**
+	 * Inserts a hash object with Robin Hood hashing. The probe stops at the same
+	 * key, at an empty index, or at a key closer to its primary hash than the new
+	 * one, which cannot be followed by the same key.
+	 * 
+	 * @param object is the object to be inserted
+	 * @param key    is the hash key of the object
+	 * @param count  is the number of times the object is inserted
+	 */
+	private void insertRobinHood(T object, int key, int count) {
+		int j = primaryHash(key, tableSize);
+		for (int localCount = 1; localCount <= tableSize; localCount++) {
+			if (indexCondition[j] == indexType.OCCUPIED) {
+				HashObject<T> stored = hashTable[j];
+				if (stored.getKey() == key && stored.getObject().equals(object)) {
+					stored.setFrequency(stored.getFrequency() + count);
+					duplicateCount += count;
+					return;
+				}
+				if (stored.getProbCount() >= localCount) {
+					j = (j + 1 == tableSize) ? 0 : j + 1;
+					continue;
+				}
+			}
+			HashObject<T> hashObject = new HashObject<T>(object, key);
+			hashObject.setFrequency(count - 1);
+			duplicateCount += count - 1;
+			hashObject.setProbCount(localCount);
+			int moves = robinHoodPlace(hashObject, j);
+			totalInsert++;
+			liveCount++;
+			totalProbs = totalProbs + localCount + moves; // each moved key is one probe further from home
+			insertProbes.record(localCount + moves);
+			if (maxLoadFactor > 0 && liveCount > maxLoadFactor * tableSize) {
+				resize();
+			}
+			return;
+		}
+	}
+
+	/**
+	 * Places a hash object at the given index of a Robin Hood table. A key found
+	 * there is moved on to the next index whose key is closer to its primary hash,
+	 * and so on until an empty index.
+	 * 
+	 * @param carried is the hash object to be placed, with its number of probes
+	 *                at the given index
+	 * @param j       is the index to place the hash object
+	 * @return the number of indexes the moved keys were moved by
+	 */
+	private int robinHoodPlace(HashObject<T> carried, int j) {
+		int moves = 0;
+		for (int index = 0; index < tableSize; index++) {
+			if (indexCondition[j] != indexType.OCCUPIED) {
+				hashTable[j] = carried;
+				indexCondition[j] = indexType.OCCUPIED;
+				maxProbe = Math.max(maxProbe, carried.getProbCount());
+				return moves;
+			}
+			if (hashTable[j].getProbCount() < carried.getProbCount()) {
+				HashObject<T> evicted = hashTable[j];
+				hashTable[j] = carried;
+				maxProbe = Math.max(maxProbe, carried.getProbCount());
+				carried = evicted;
+			}
+			j = (j + 1 == tableSize) ? 0 : j + 1;
+			carried.setProbCount(carried.getProbCount() + 1);
+			moves++;
+		}
+		return moves;
+	}
+
+	/**
+	 * Inserts every object of the array, in order, with the same statistics as
+	 * inserting them one at a time
+	 * 
+	 * @param objects is the objects to be hashed in the hash table
+	 */
+	public void insertAll(T[] objects) {
+		BatchBuffer batch = new BatchBuffer();
+		for (int from = 0; from < objects.length; from += BATCH_SIZE) {
+			int count = Math.min(BATCH_SIZE, objects.length - from);
+			System.arraycopy(objects, from, batch.objects, 0, count);
+			insertBatch(batch, count);
+		}
+	}
+
+	/**
+	 * Inserts every object of the iterable, in order, with the same statistics
+	 * as inserting them one at a time
+	 * 
+	 * @param objects is the objects to be hashed in the hash table
+	 */
+	public void insertAll(Iterable<? extends T> objects) {
+		BatchBuffer batch = new BatchBuffer();
+		int count = 0;
+		for (T object : objects) {
+			batch.objects[count++] = object;
+			if (count == BATCH_SIZE) {
+				insertBatch(batch, count);
+				count = 0;
+			}
+		}
+		insertBatch(batch, count);
+	}
 
-			if (tableType == 1) {
-				j = linearHashIndex(hashObject, index);
-				localCount++;// either of these will work
+	/**
+	 * Inserts a block of objects in three passes. The first hashes every object,
+	 * the second reads the primary index of every object, which are independent
+	 * loads the processor can have in flight together, and settles the objects
+	 * already stored there. The third inserts the rest in order. A duplicate at
+	 * its primary index only adds to a frequency, which is the same in any
+	 * order, so the second pass is only skipped when the block could start a
+	 * resize or the table is Robin Hood, where an insert can move a stored key.
+	 * <p>
+	 * The probe sequences of the block are not interleaved: only the first load
+	 * of each object is batched, and an object which is not settled at its
+	 * primary index is probed alone by insert. The next index of an object
+	 * depends on what the objects before it stored, so walking the sequences
+	 * together would change which index each object takes and the probe counts,
+	 * unlike inserting one at a time.
+	 * 
+	 * @param batch is the buffer holding the block
+	 * @param count is the number of objects in the block
+	 */
+	@SuppressWarnings("unchecked")
+	private void insertBatch(BatchBuffer batch, int count) {
+		Object[] objects = batch.objects;
+		int[] keys = batch.keys;
+		for (int i = 0; i < count; i++) {
+			keys[i] = hasher.hash(objects[i]);
+		}
+		boolean settleHome = oldTable == null && probeType != ProbeType.ROBIN_HOOD
+				&& (maxLoadFactor == 0 || liveCount + count <= maxLoadFactor * tableSize);
+		if (settleHome) {
+			for (int i = 0; i < count; i++) {
+				int j = primaryHash(keys[i], tableSize);
+				HashObject<T> stored = hashTable[j];
+				if (stored != null && stored.getKey() == keys[i] && stored.getObject().equals(objects[i])) {
+					stored.incrementFrequency();
+					duplicateCount++;
+					objects[i] = null;
+				}
 			}
-			if (tableType == 2) {
-				j = doubleHashIndex(hashObject, index);
-				localCount++; // either of these will increment
+		}
+		for (int i = 0; i < count; i++) {
+			if (objects[i] != null) {
+				insert((T) objects[i], keys[i], 1);
+				objects[i] = null;
 			}
-			if (indexCondition[j] == indexType.NIL || indexCondition[j] == indexType.DELETED) {
+		}
+	}
+
+	/**
+	 * BatchBuffer class holds the objects of a block of insertAll and their hash
+	 * keys
+	 */
+	private static class BatchBuffer {
+		final Object[] objects = new Object[BATCH_SIZE];
+		final int[] keys = new int[BATCH_SIZE];
+	}
+
+	/**
+	 * Returns the hash object equal to the given object
+	 * 
+	 * @param object is the object to be searched in the hash table
+	 * @return the hash object holding the object, or null if it is not in the
+	 *         hash table
+	 */
+	public HashObject<T> search(T object) {
+		int key = hasher.hash(object);
+		HashObject<T> found = null;
+		long result = find(object, key, hashTable, indexCondition, tableSize, maxProbe);
+		int j = indexOf(result);
+		int probes = probesOf(result);
+		if (j >= 0) {
+			found = hashTable[j];
+		} else if (oldTable != null) {
+			result = find(object, key, oldTable, oldCondition, oldTableSize, oldMaxProbe);
+			j = indexOf(result);
+			probes += probesOf(result);
+			if (j >= 0) {
+				found = oldTable[j];
+			}
+		}
+		lookupProbes.record(probes);
+		return found;
+	}
+
+	/**
+	 * Returns if the object is in the hash table
+	 * 
+	 * @param object is the object to be searched in the hash table
+	 * @return if the object is in the hash table
+	 */
+	public boolean contains(T object) {
+		return search(object) != null;
+	}
+
+	/**
+	 * Returns the frequency of the object in the hash table, same as the
+	 * frequency of its hash object
+	 * 
+	 * @param object is the object to be searched in the hash table
+	 * @return the frequency of the object, or -1 if it is not in the hash table
+	 */
+	public int frequencyOf(T object) {
+		HashObject<T> hashObject = search(object);
+		return hashObject == null ? -1 : hashObject.getFrequency();
+	}
+
+	/**
+	 * Deletes the object from the hash table. The index is marked DELETED so the
+	 * probe sequences going through it are kept, and the table is rebuilt once
+	 * the deleted indexes pass the tombstone threshold.
+	 * 
+	 * @param object is the object to be deleted
+	 * @return if the object was in the hash table
+	 */
+	public boolean delete(T object) {
+		int key = hasher.hash(object);
+		if (oldTable != null) {
+			migrateSlots(MIGRATE_PER_INSERT);
+		}
+		int j = indexOf(find(object, key, hashTable, indexCondition, tableSize, maxProbe));
+		if (j >= 0 && probeType == ProbeType.ROBIN_HOOD) {
+			backwardShift(j);
+			liveCount--;
+			return true;
+		}
+		if (j >= 0) {
+			hashTable[j] = null;
+			indexCondition[j] = indexType.DELETED;
+			deletedCount++;
+			liveCount--;
+			if (oldTable == null && tombstoneThreshold > 0 && deletedCount > tombstoneThreshold * tableSize) {
+				startRehash(tableSize); // same size, only the live entries are moved
+			}
+			return true;
+		}
+		if (oldTable != null) {
+			j = indexOf(find(object, key, oldTable, oldCondition, oldTableSize, oldMaxProbe));
+			if (j >= 0) {
+				oldTable[j] = null;
+				oldCondition[j] = indexType.DELETED;
+				liveCount--;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Deletes the object at the given index of a Robin Hood table by moving each
+	 * following key back one index, until an empty index or a key at its primary
+	 * hash
+	 * 
+	 * @param j is the index of the deleted object
+	 */
+	private void backwardShift(int j) {
+		int next = (j + 1 == tableSize) ? 0 : j + 1;
+		while (indexCondition[next] == indexType.OCCUPIED && hashTable[next].getProbCount() > 1) {
+			hashTable[j] = hashTable[next];
+			hashTable[j].setProbCount(hashTable[j].getProbCount() - 1);
+			j = next;
+			next = (j + 1 == tableSize) ? 0 : j + 1;
+		}
+		hashTable[j] = null;
+		indexCondition[j] = indexType.NIL;
+	}
+
+	/**
+	 * Rebuilds the probe chains of the hash table without the deleted indexes
+	 */
+	public void purgeTombstones() {
+		completeRehash();
+		startRehash(tableSize);
+		completeRehash();
+	}
+
+	/**
+	 * Returns the index of the given table holding the object and the number of
+	 * probes it took, following the same probe sequence as insert. Nothing is
+	 * written, so searches can run at the same time.
+	 * 
+	 * @param object    is the object being searched
+	 * @param key       is the hash key of the object
+	 * @param table     is the table to be searched
+	 * @param condition is the index conditions of the table
+	 * @param size      is the size of the table
+	 * @param maxProbe  is the longest probe sequence of a Robin Hood table
+	 * @return the index holding the object, or -1 if it is not in the table, and
+	 *         the number of probes, read with indexOf and probesOf
+	 */
+	private long find(Object object, int key, HashObject<T>[] table, indexType condition[], int size,
+			int maxProbe) {
+		boolean robinHood = probeType == ProbeType.ROBIN_HOOD;
+		int limit = robinHood ? Math.min(size, maxProbe) : size;
+		int step = probeType.firstStep(key, size);
+		int j = primaryHash(key, size);
+		for (int index = 0; index < limit; index++) {
+			if (condition[j] == indexType.NIL) {
+				return findResult(-1, index + 1);
+			}
+			if (condition[j] == indexType.OCCUPIED) {
+				if (table[j].getKey() == key && table[j].getObject().equals(object)) {
+					return findResult(j, index + 1);
+				}
+				if (robinHood && table[j].getProbCount() <= index) {
+					return findResult(-1, index + 1); // the object would have taken this index
+				}
+			}
+			j += step;
+			if (j >= size) {
+				j -= size;
+			}
+			step = probeType.nextStep(step, size);
+		}
+		return findResult(-1, limit);
+	}
+
+	/**
+	 * Returns the index and the number of probes of a find in one long
+	 * 
+	 * @param index  is the index holding the object, or -1
+	 * @param probes is the number of probes
+	 * @return the number of probes in the high 32 bits and the index in the low
+	 */
+	private static long findResult(int index, int probes) {
+		return ((long) probes << 32) | (index & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Returns the index of a find result
+	 * 
+	 * @param result is the result of find
+	 * @return the index holding the object, or -1
+	 */
+	private static int indexOf(long result) {
+		return (int) result;
+	}
+
+	/**
+	 * Returns the number of probes of a find result
+	 * 
+	 * @param result is the result of find
+	 * @return the number of probes
+	 */
+	private static int probesOf(long result) {
+		return (int) (result >>> 32);
+	}
+
+	/**
+	 * Starts growing the hash table to the next twin prime of at least twice the
+	 * current size
+	 */
+	private void resize() {
+		completeRehash(); // a resize still in progress must finish first
+		if (tableSize > Integer.MAX_VALUE / 4) {
+			return;
+		}
+		int newSize = TwinPrimeGenerator.getNextTwinPrime(2 * tableSize, 4 * tableSize);
+		if (newSize <= 0) {
+			return; // no larger table size, keep probing the current one
+		}
+		startRehash(newSize);
+	}
+
+	/**
+	 * Starts moving the entries to a new table of the given size. Entries are
+	 * moved a few slots at a time on the following inserts and deletes, so no
+	 * single call pays for the whole rehash.
+	 * 
+	 * @param newSize is the size of the new table
+	 */
+	private void startRehash(int newSize) {
+		oldTable = hashTable;
+		oldCondition = indexCondition;
+		oldTableSize = tableSize;
+		migrateIndex = 0;
+		hashTable = newTable(newSize);
+		indexCondition = newCondition(newSize);
+		tableSize = newSize;
+		deletedCount = 0;
+		oldMaxProbe = maxProbe;
+		maxProbe = 0;
+	}
+
+	/**
+	 * Moves the given number of slots of the old table to the new table
+	 * 
+	 * @param slots is the number of old slots to be moved
+	 */
+	private void migrateSlots(int slots) {
+		int end = Math.min(oldTableSize, migrateIndex + slots);
+		for (; migrateIndex < end; migrateIndex++) {
+			if (oldCondition[migrateIndex] == indexType.OCCUPIED) {
+				place(oldTable[migrateIndex]);
+				oldCondition[migrateIndex] = indexType.DELETED; // keeps the probe chains of the old table
+			}
+			oldTable[migrateIndex] = null;
+		}
+		if (migrateIndex == oldTableSize) {
+			oldTable = null;
+			oldCondition = null;
+			oldTableSize = 0;
+		}
+	}
+
+	/**
+	 * Looks for the object in the part of the old table not moved yet. If found,
+	 * the object is counted as count duplicates and moved to the new table right away.
+	 * 
+	 * @param object is the object being inserted
+	 * @param key    is the hash key of the object
+	 * @param count  is the number of times the object is inserted
+	 * @return if the object was found in the old table
+	 */
+	private boolean moveDuplicate(T object, int key, int count) {
+		int j = indexOf(find(object, key, oldTable, oldCondition, oldTableSize, oldMaxProbe));
+		if (j < 0) {
+			return false;
+		}
+		HashObject<T> found = oldTable[j];
+		oldTable[j] = null;
+		oldCondition[j] = indexType.DELETED; // keeps the probe chains of the old table
+		found.setFrequency(found.getFrequency() + count);
+		duplicateCount += count;
+		place(found);
+		return true;
+	}
+
+	/**
+	 * Places an already counted hash object in the first free index of its probe
+	 * sequence in the current table, keeping its frequency and number of probes
+	 * 
+	 * @param hashObject is the hash object to be placed
+	 */
+	private void place(HashObject<T> hashObject) {
+		int key = hashObject.getKey();
+		int j = primaryHash(key, tableSize);
+		if (probeType == ProbeType.ROBIN_HOOD) {
+			hashObject.setProbCount(1); // Robin Hood keeps the number of probes to the current index
+			robinHoodPlace(hashObject, j);
+			return;
+		}
+		int step = probeType.firstStep(key, tableSize);
+		for (int index = 0; index < tableSize; index++) {
+			if (indexCondition[j] != indexType.OCCUPIED) {
+				if (indexCondition[j] == indexType.DELETED) {
+					deletedCount--;
+				}
 				hashTable[j] = hashObject;
 				indexCondition[j] = indexType.OCCUPIED;
-				// hashTable[j].incrementFrequency(); don want to make duplicate
-				totalInsert++;
-				totalProbs = totalProbs + localCount;// real insertion
-				hashTable[j].setProbCount(localCount); // each insertion e ae poriman probing hoise
-				// return j;
 				return;
-			} else { // means same hashCode // kokhnoi emon kisu thakbe na j same j but different
-						// hashCode ?
-				if (hashTable[j].getKey() == hashObject.getKey()) {
-					if (hashTable[j].getObject().equals(object)) {
-						hashTable[j].incrementFrequency();
-						duplicateCount++;
-						// return 0;// no more probing
-						return;
-					}
-				} // no else here because, if key same, we also need to increase index
-				index++;
 			}
-			// totalProbs = totalProbs+ localCount; // only increment if real insert
-		} while (index < tableSize);
-		// return -1;
-		return;
+			j += step;
+			if (j >= tableSize) {
+				j -= tableSize;
+			}
+			step = probeType.nextStep(step, tableSize);
+		}
+	}
+
+	/**
+	 * Moves every entry left in the old table to the new table, if a resize is in
+	 * progress
+	 */
+	public void completeRehash() {
+		if (oldTable != null) {
+			migrateSlots(oldTableSize);
+		}
+	}
+
+	/**
+	 * Places every live object in a new table of the given size and probe type
+	 * on the common fork-join pool
+	 * 
+	 * @param newSize      is the size of the new table
+	 * @param newTableType is the probe type of the new table
+	 */
+	public void rebuild(int newSize, int newTableType) {
+		rebuild(newSize, newTableType, ForkJoinPool.commonPool());
 	}
 
 	/**
-	 * Returns the hash table
+	 * Places every live object in a new table of the given size and probe type
+	 * at once, on the given fork-join pool, instead of one at a time like a
+	 * resize. The objects keep their frequencies and hash keys. Their numbers of
+	 * probes are set to their probes in the new table, and the total probes and
+	 * histogram of insert probes are those of the live objects. The total inserts
+	 * and duplicates are kept. If an object cannot be placed the table is left
+	 * as it was.
+	 * 
+	 * @param newSize      is the size of the new table
+	 * @param newTableType is the probe type of the new table
+	 * @param pool         is the pool the rebuild runs on
+	 * @throws IllegalArgumentException if the new size is not larger than the
+	 *                                  number of objects
+	 * @throws IllegalStateException    if an object has no free index on its
+	 *                                  probe sequence
+	 */
+	public void rebuild(int newSize, int newTableType, ForkJoinPool pool) {
+		ProbeType newProbeType = ProbeType.of(newTableType);
+		completeRehash();
+		if (newSize <= liveCount) {
+			throw new IllegalArgumentException("Table size should be larger than the " + liveCount + " objects");
+		}
+		ParallelRebuild<T> rebuild = new ParallelRebuild<T>(hashTable, newSize, newProbeType, pool);
+		HashObject<T>[] table = rebuild.run();
+		indexType condition[] = new indexType[newSize];
+		for (int i = 0; i < newSize; i++) {
+			condition[i] = table[i] == null ? indexType.NIL : indexType.OCCUPIED;
+		}
+		ProbeHistogram probeLengths = rebuild.getProbeLengths();
+		hashTable = table;
+		indexCondition = condition;
+		tableSize = newSize;
+		tableType = newTableType;
+		probeType = newProbeType;
+		deletedCount = 0;
+		maxProbe = probeLengths.getMax();
+		totalProbs = probeLengths.getSum();
+		insertProbes.reset();
+		insertProbes.merge(probeLengths);
+	}
+
+	/**
+	 * Returns an immutable copy of the hash table laid out for lookups, which any
+	 * number of threads can search. A resize in progress is completed first.
+	 * 
+	 * @return the frozen hash table
+	 */
+	public FrozenHashTable<T> freeze() {
+		completeRehash();
+		return new FrozenHashTable<T>(this);
+	}
+
+	/**
+	 * Returns if an incremental resize is still moving entries to the new table
+	 * 
+	 * @return if a resize is in progress
+	 */
+	public boolean isRehashing() {
+		return oldTable != null;
+	}
+
+	/**
+	 * Returns the hasher of the objects
+	 * 
+	 * @return the hasher
+	 */
+	public Hasher getHasher() {
+		return hasher;
+	}
+
+	/**
+	 * Returns the load factor after which the table is resized
+	 * 
+	 * @return the max load factor, 0 if the table never grows
+	 */
+	public double getMaxLoadFactor() {
+		return maxLoadFactor;
+	}
+
+	/**
+	 * Returns the ratio of DELETED indexes after which the table is rebuilt
+	 * 
+	 * @return the tombstone threshold, 0 if the table is never rebuilt
+	 */
+	public double getTombstoneThreshold() {
+		return tombstoneThreshold;
+	}
+
+	/**
+	 * Sets the ratio of DELETED indexes after which the table is rebuilt
+	 * 
+	 * @param tombstoneThreshold is the new threshold, 0 to never rebuild
+	 */
+	public void setTombstoneThreshold(double tombstoneThreshold) {
+		this.tombstoneThreshold = tombstoneThreshold;
+	}
+
+	/**
+	 * Returns the number of objects in the hash table now
+	 * 
+	 * @return the number of objects in the hash table
+	 */
+	public int getLiveCount() {
+		return liveCount;
+	}
+
+	/**
+	 * Returns the number of DELETED indexes in the hash table
+	 * 
+	 * @return the number of DELETED indexes
+	 */
+	public int getDeletedCount() {
+		return deletedCount;
+	}
+
+	/**
+	 * Returns if the given index of the hash table is DELETED, after moving any
+	 * entries left from a resize
+	 * 
+	 * @param index is the index of the hash table
+	 * @return if the index is DELETED
+	 */
+	boolean isDeleted(int index) {
+		completeRehash();
+		return indexCondition[index] == indexType.DELETED;
+	}
+
+	/**
+	 * Puts a hash object at the given index without probing, for a table loaded
+	 * from a snapshot
+	 * 
+	 * @param index      is the index the hash object was saved at
+	 * @param hashObject is the hash object, with its frequency, number of probes
+	 *                   and hash key
+	 */
+	void restore(int index, HashObject<T> hashObject) {
+		hashTable[index] = hashObject;
+		indexCondition[index] = indexType.OCCUPIED;
+		maxProbe = Math.max(maxProbe, hashObject.getProbCount());
+		insertProbes.record(hashObject.getProbCount()); // the probes the object took, as saved
+	}
+
+	/**
+	 * Marks the given index DELETED, for a table loaded from a snapshot
+	 * 
+	 * @param index is the index which was saved DELETED
+	 */
+	void restoreDeleted(int index) {
+		hashTable[index] = null;
+		indexCondition[index] = indexType.DELETED;
+	}
+
+	/**
+	 * Sets the statistics of a table loaded from a snapshot
+	 * 
+	 * @param totalProbs         is the number of total probes
+	 * @param totalInsert        is the total inserts
+	 * @param duplicateCount     is the number of duplicates
+	 * @param liveCount          is the number of objects in the table
+	 * @param deletedCount       is the number of DELETED indexes
+	 * @param tombstoneThreshold is the ratio of DELETED indexes which starts a
+	 *                           rebuild
+	 */
+	void restoreCounters(long totalProbs, long totalInsert, long duplicateCount, int liveCount, int deletedCount,
+			double tombstoneThreshold) {
+		this.totalProbs = totalProbs;
+		this.totalInsert = totalInsert;
+		this.duplicateCount = duplicateCount;
+		this.liveCount = liveCount;
+		this.deletedCount = deletedCount;
+		this.tombstoneThreshold = tombstoneThreshold;
+	}
+
+	/**
+	 * Returns the hash table, after moving any entries left from a resize
 	 * 
 	 * @return returns the hash table
 	 */
 	public HashObject<T>[] getHashTable() {
+		completeRehash();
 		return hashTable;
 	}
 
@@ -168,22 +953,34 @@ public class HashTable<T> {
 		return tableType;
 	}
 
+	/**
+	 * Returns the name of the probe type
+	 * 
+	 * @return the name of the probe type
+	 */
+	public String getTableName() {
+		return probeType.getTableName();
+	}
+
 	/**
 	 * Sets the hash table type
 	 * 
 	 * @param tableType is the table type to be set
 	 */
 	public void setTableType(int tableType) {
+		this.probeType = ProbeType.of(tableType);
 		this.tableType = tableType;
 	}
 
 	/**
-	 * Returns the hash object of the given index
+	 * Returns the hash object of the given index, after moving any entries left
+	 * from a resize
 	 * 
 	 * @param index is the index of the hash table whose key is to be returned
 	 * @return the hash object of the given index
 	 */
 	public HashObject<T> getTableContent(int index) {
+		completeRehash();
 		return hashTable[index];
 	}
 
@@ -210,7 +1007,7 @@ public class HashTable<T> {
 	 * 
 	 * @return the total number of inserts in the hash table
 	 */
-	public int getTotalInsert() {
+	public long getTotalInsert() {
 		return this.totalInsert;
 	}
 
@@ -219,7 +1016,7 @@ public class HashTable<T> {
 	 * 
 	 * @return number of duplicates in the hash table
 	 */
-	public int getDuplicateCount() {
+	public long getDuplicateCount() {
 		return this.duplicateCount;
 	}
 
@@ -228,21 +1025,55 @@ public class HashTable<T> {
 	 * 
 	 * @return the number of total probes of the inserted objects in the hash table
 	 */
-	public int getTotalProbs() {
+	public long getTotalProbs() {
 		return this.totalProbs;
 	}
 
+	/**
+	 * Returns a snapshot of the statistics of the hash table, with the probe
+	 * lengths of inserts and searches and the lengths of the clusters of used
+	 * indexes. The clusters are counted by a scan of the table.
+	 * 
+	 * @return the statistics of the hash table
+	 */
+	public HashTableMetrics getMetrics() {
+		indexType condition[] = indexCondition;
+		ProbeHistogram clusterLengths = new ProbeHistogram();
+		int size = condition.length;
+		int start = 0; // a cluster can wrap around the end, so the scan starts after a NIL index
+		while (start < size && condition[start] != indexType.NIL) {
+			start++;
+		}
+		int length = 0;
+		for (int i = 1; i <= size; i++) {
+			if (condition[(start + i) % size] == indexType.NIL) {
+				if (length > 0) {
+					clusterLengths.record(length);
+				}
+				length = 0;
+			} else {
+				length++;
+			}
+		}
+		if (length > 0) {
+			clusterLengths.record(length); // no NIL index at all
+		}
+		return new HashTableMetrics(size, totalProbs, totalInsert, duplicateCount, liveCount, deletedCount,
+				insertProbes.copy(), lookupProbes.copy(), clusterLengths);
+	}
+
 	/**
 	 * Returns if the hash table is empty or not
 	 * 
 	 * @return if the hash table empty
 	 */
 	public boolean isEmpty() {
-		return this.totalInsert == 0;
+		return this.liveCount == 0;
 	}
 
 	@Override
 	public String toString() {
+		completeRehash();
 		return Arrays.toString(hashTable);
 	}
 
@@ -0,0 +1,154 @@
+/**
+ * HashTableMetrics class is a snapshot of the statistics of a hash table: the
+ * counters, the probe lengths of inserts and lookups, the lengths of the
+ * clusters of used indexes, the tombstone ratio and the load factor.
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public class HashTableMetrics {
+
+	private final int tableSize;
+	private final long totalProbs;
+	private final long totalInsert;
+	private final long duplicateCount;
+	private final int liveCount;
+	private final int deletedCount;
+	private final ProbeHistogram insertProbes;
+	private final ProbeHistogram lookupProbes;
+	private final ProbeHistogram clusterLengths;
+
+	/**
+	 * Constructor
+	 *
+	 * @param tableSize      is the size of the hash table
+	 * @param totalProbs     is the number of total probes of inserted objects
+	 * @param totalInsert    is the total inserts
+	 * @param duplicateCount is the number of duplicates
+	 * @param liveCount      is the number of objects in the hash table
+	 * @param deletedCount   is the number of DELETED indexes
+	 * @param insertProbes   is the probe lengths of inserts, copied by the caller
+	 * @param lookupProbes   is the probe lengths of lookups, copied by the caller
+	 * @param clusterLengths is the lengths of the runs of used indexes
+	 */
+	public HashTableMetrics(int tableSize, long totalProbs, long totalInsert, long duplicateCount, int liveCount,
+			int deletedCount, ProbeHistogram insertProbes, ProbeHistogram lookupProbes,
+			ProbeHistogram clusterLengths) {
+		this.tableSize = tableSize;
+		this.totalProbs = totalProbs;
+		this.totalInsert = totalInsert;
+		this.duplicateCount = duplicateCount;
+		this.liveCount = liveCount;
+		this.deletedCount = deletedCount;
+		this.insertProbes = insertProbes;
+		this.lookupProbes = lookupProbes;
+		this.clusterLengths = clusterLengths;
+	}
+
+	/**
+	 * Returns the size of the hash table
+	 *
+	 * @return the size of the hash table
+	 */
+	public int getTableSize() {
+		return tableSize;
+	}
+
+	/**
+	 * Returns the number of total probes of inserted objects
+	 *
+	 * @return the number of total probes
+	 */
+	public long getTotalProbs() {
+		return totalProbs;
+	}
+
+	/**
+	 * Returns the total inserts
+	 *
+	 * @return the total inserts
+	 */
+	public long getTotalInsert() {
+		return totalInsert;
+	}
+
+	/**
+	 * Returns the number of duplicates
+	 *
+	 * @return the number of duplicates
+	 */
+	public long getDuplicateCount() {
+		return duplicateCount;
+	}
+
+	/**
+	 * Returns the number of objects in the hash table
+	 *
+	 * @return the number of objects
+	 */
+	public int getLiveCount() {
+		return liveCount;
+	}
+
+	/**
+	 * Returns the number of DELETED indexes
+	 *
+	 * @return the number of DELETED indexes
+	 */
+	public int getDeletedCount() {
+		return deletedCount;
+	}
+
+	/**
+	 * Returns the ratio of objects to indexes
+	 *
+	 * @return the load factor
+	 */
+	public double getLoadFactor() {
+		return (double) liveCount / tableSize;
+	}
+
+	/**
+	 * Returns the ratio of DELETED indexes to indexes
+	 *
+	 * @return the tombstone ratio
+	 */
+	public double getTombstoneRatio() {
+		return (double) deletedCount / tableSize;
+	}
+
+	/**
+	 * Returns the probe lengths of the inserts of new objects
+	 *
+	 * @return the insert probe lengths
+	 */
+	public ProbeHistogram getInsertProbes() {
+		return insertProbes;
+	}
+
+	/**
+	 * Returns the probe lengths of the lookups
+	 *
+	 * @return the lookup probe lengths
+	 */
+	public ProbeHistogram getLookupProbes() {
+		return lookupProbes;
+	}
+
+	/**
+	 * Returns the lengths of the runs of occupied or DELETED indexes, which is
+	 * how far primary clustering has grown
+	 *
+	 * @return the cluster lengths
+	 */
+	public ProbeHistogram getClusterLengths() {
+		return clusterLengths;
+	}
+
+	@Override
+	public String toString() {
+		return "load factor " + getLoadFactor() + ", tombstone ratio " + getTombstoneRatio() + "\ninsert probes: "
+				+ insertProbes + "\nlookup probes: " + lookupProbes + "\nclusters: " + clusterLengths;
+	}
+
+}
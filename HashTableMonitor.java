@@ -0,0 +1,132 @@
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * HashTableMonitor class publishes the statistics of a hash table as a JMX
+ * MBean. The statistics are read from a snapshot of the table taken at most
+ * once a second, as the cluster lengths need a scan of the whole table. The
+ * hash table is read without locking, so values read while it is changed may
+ * be slightly out of date.
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public class HashTableMonitor implements HashTableMonitorMBean {
+
+	private static final long MAX_AGE = 1_000_000_000L; // nanoseconds a snapshot is reused
+
+	private final HashTable<?> hashTable;
+	private HashTableMetrics metrics;
+	private long metricsTime;
+
+	/**
+	 * Constructor
+	 *
+	 * @param hashTable is the hash table to be monitored
+	 */
+	public HashTableMonitor(HashTable<?> hashTable) {
+		this.hashTable = hashTable;
+	}
+
+	/**
+	 * Registers a monitor of the hash table with the platform MBean server
+	 *
+	 * @param hashTable is the hash table to be monitored
+	 * @param name      is the name of the hash table in the MBean object name
+	 * @return the object name the monitor is registered under
+	 * @throws JMException if the monitor cannot be registered
+	 */
+	public static ObjectName register(HashTable<?> hashTable, String name) throws JMException {
+		ObjectName objectName = new ObjectName("HashTable:type=HashTableMonitor,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(new HashTableMonitor(hashTable), objectName);
+		return objectName;
+	}
+
+	/**
+	 * Returns the snapshot of the hash table, taking a new one if the last is
+	 * more than a second old
+	 *
+	 * @return the snapshot
+	 */
+	private synchronized HashTableMetrics metrics() {
+		long now = System.nanoTime();
+		if (metrics == null || now - metricsTime > MAX_AGE) {
+			metrics = hashTable.getMetrics();
+			metricsTime = now;
+		}
+		return metrics;
+	}
+
+	@Override
+	public double getLoadFactor() {
+		return metrics().getLoadFactor();
+	}
+
+	@Override
+	public double getTombstoneRatio() {
+		return metrics().getTombstoneRatio();
+	}
+
+	@Override
+	public int getTableSize() {
+		return metrics().getTableSize();
+	}
+
+	@Override
+	public long getTotalInsert() {
+		return metrics().getTotalInsert();
+	}
+
+	@Override
+	public long getDuplicateCount() {
+		return metrics().getDuplicateCount();
+	}
+
+	@Override
+	public long getTotalProbs() {
+		return metrics().getTotalProbs();
+	}
+
+	@Override
+	public int getInsertProbesP50() {
+		return metrics().getInsertProbes().percentile(0.5);
+	}
+
+	@Override
+	public int getInsertProbesP99() {
+		return metrics().getInsertProbes().percentile(0.99);
+	}
+
+	@Override
+	public int getInsertProbesMax() {
+		return metrics().getInsertProbes().getMax();
+	}
+
+	@Override
+	public int getLookupProbesP50() {
+		return metrics().getLookupProbes().percentile(0.5);
+	}
+
+	@Override
+	public int getLookupProbesP99() {
+		return metrics().getLookupProbes().percentile(0.99);
+	}
+
+	@Override
+	public int getLookupProbesMax() {
+		return metrics().getLookupProbes().getMax();
+	}
+
+	@Override
+	public double getMeanClusterLength() {
+		return metrics().getClusterLengths().getMean();
+	}
+
+	@Override
+	public int getMaxClusterLength() {
+		return metrics().getClusterLengths().getMax();
+	}
+
+}
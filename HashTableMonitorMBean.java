@@ -0,0 +1,108 @@
+/**
+ * HashTableMonitorMBean interface is the JMX view of the statistics of a hash
+ * table
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public interface HashTableMonitorMBean {
+
+	/**
+	 * Returns the ratio of objects to indexes
+	 *
+	 * @return the load factor
+	 */
+	double getLoadFactor();
+
+	/**
+	 * Returns the ratio of DELETED indexes to indexes
+	 *
+	 * @return the tombstone ratio
+	 */
+	double getTombstoneRatio();
+
+	/**
+	 * Returns the size of the hash table
+	 *
+	 * @return the size of the hash table
+	 */
+	int getTableSize();
+
+	/**
+	 * Returns the total inserts
+	 *
+	 * @return the total inserts
+	 */
+	long getTotalInsert();
+
+	/**
+	 * Returns the number of duplicates
+	 *
+	 * @return the number of duplicates
+	 */
+	long getDuplicateCount();
+
+	/**
+	 * Returns the number of total probes of inserted objects
+	 *
+	 * @return the number of total probes
+	 */
+	long getTotalProbs();
+
+	/**
+	 * Returns the median probe length of inserts
+	 *
+	 * @return the median insert probe length
+	 */
+	int getInsertProbesP50();
+
+	/**
+	 * Returns the 99th percentile probe length of inserts
+	 *
+	 * @return the 99th percentile insert probe length
+	 */
+	int getInsertProbesP99();
+
+	/**
+	 * Returns the longest probe length of an insert
+	 *
+	 * @return the longest insert probe length
+	 */
+	int getInsertProbesMax();
+
+	/**
+	 * Returns the median probe length of lookups
+	 *
+	 * @return the median lookup probe length
+	 */
+	int getLookupProbesP50();
+
+	/**
+	 * Returns the 99th percentile probe length of lookups
+	 *
+	 * @return the 99th percentile lookup probe length
+	 */
+	int getLookupProbesP99();
+
+	/**
+	 * Returns the longest probe length of a lookup
+	 *
+	 * @return the longest lookup probe length
+	 */
+	int getLookupProbesMax();
+
+	/**
+	 * Returns the average length of the clusters of used indexes
+	 *
+	 * @return the average cluster length
+	 */
+	double getMeanClusterLength();
+
+	/**
+	 * Returns the longest cluster of used indexes
+	 *
+	 * @return the longest cluster length
+	 */
+	int getMaxClusterLength();
+
+}
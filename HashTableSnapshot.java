@@ -0,0 +1,228 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * HashTableSnapshot class saves a hash table to a binary file and loads it back
+ * without inserting the objects again. The file has a header with the size,
+ * probe type, hash function and statistics of the table, then one entry for each index: the
+ * index condition and key type in one byte, and for an occupied index the
+ * frequency, number of probes, hash key and key. Integer, Long and String keys
+ * are supported.
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public class HashTableSnapshot {
+
+	private static final int MAGIC = 0x48545331; // "HTS1"
+	private static final int VERSION = 3; // version 1 has no hash function and always used JAVA, 1 and 2 no hash keys
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	// first byte of every index
+	private static final byte NIL = 0;
+	private static final byte DELETED = 1;
+	private static final byte INTEGER = 2;
+	private static final byte LONG = 3;
+	private static final byte STRING = 4;
+
+	/**
+	 * Constructor, not used as every method is static
+	 */
+	private HashTableSnapshot() {
+	}
+
+	/**
+	 * Saves the hash table to the given file
+	 *
+	 * @param hashTable is the hash table to be saved
+	 * @param path      is the file to save to
+	 * @throws IOException if the file cannot be written
+	 * @throws IllegalArgumentException if the hash table uses a hasher which is
+	 *                                  not a HashFunction
+	 */
+	public static <T> void save(HashTable<T> hashTable, Path path) throws IOException {
+		if (!(hashTable.getHasher() instanceof HashFunction)) {
+			throw new IllegalArgumentException("Cannot save a hash table with hasher " + hashTable.getHasher());
+		}
+		hashTable.completeRehash();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			out.putInt(MAGIC);
+			out.putInt(VERSION);
+			out.putInt(hashTable.getTableSize());
+			out.putInt(hashTable.getTableType());
+			out.putInt(((HashFunction) hashTable.getHasher()).getCode());
+			out.putDouble(hashTable.getMaxLoadFactor());
+			out.putDouble(hashTable.getTombstoneThreshold());
+			out.putLong(hashTable.getTotalProbs());
+			out.putLong(hashTable.getTotalInsert());
+			out.putLong(hashTable.getDuplicateCount());
+			out.putLong(hashTable.getLiveCount());
+			out.putLong(hashTable.getDeletedCount());
+
+			for (int i = 0; i < hashTable.getTableSize(); i++) {
+				if (out.remaining() < 32) {
+					flush(channel, out);
+				}
+				HashObject<T> hashObject = hashTable.getTableContent(i);
+				if (hashObject == null) {
+					out.put(hashTable.isDeleted(i) ? DELETED : NIL);
+					continue;
+				}
+				Object object = hashObject.getObject();
+				if (object instanceof Integer) {
+					out.put(INTEGER);
+					putCounts(out, hashObject);
+					out.putInt((Integer) object);
+				} else if (object instanceof Long) {
+					out.put(LONG);
+					putCounts(out, hashObject);
+					out.putLong((Long) object);
+				} else if (object instanceof String) {
+					byte[] bytes = ((String) object).getBytes(StandardCharsets.UTF_8);
+					out.put(STRING);
+					putCounts(out, hashObject);
+					out.putInt(bytes.length);
+					if (bytes.length > out.remaining()) {
+						flush(channel, out);
+					}
+					if (bytes.length > out.remaining()) {
+						writeFully(channel, ByteBuffer.wrap(bytes));
+					} else {
+						out.put(bytes);
+					}
+				} else {
+					throw new IllegalArgumentException("Cannot save key of " + object.getClass());
+				}
+			}
+			flush(channel, out);
+		}
+	}
+
+	/**
+	 * Writes the frequency, number of probes and hash key of a hash object
+	 *
+	 * @param out        is the buffer to write to
+	 * @param hashObject is the hash object
+	 */
+	private static void putCounts(ByteBuffer out, HashObject<?> hashObject) {
+		out.putInt(hashObject.getFrequency());
+		out.putInt(hashObject.getProbCount());
+		out.putInt(hashObject.getKey());
+	}
+
+	/**
+	 * Writes the buffer to the file and clears it
+	 *
+	 * @param channel is the file
+	 * @param out     is the buffer
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+		out.flip();
+		writeFully(channel, out);
+		out.clear();
+	}
+
+	/**
+	 * Writes every remaining byte of the buffer to the file
+	 *
+	 * @param channel is the file
+	 * @param buffer  is the buffer
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Loads a hash table from the given file. The file is memory mapped and each
+	 * object is put back at its saved index with its saved hash key, so nothing
+	 * is probed or hashed again. Objects of a version 1 or 2 snapshot, which has
+	 * no hash keys, are hashed once. The insert probe lengths are counted again
+	 * from the saved number of probes of each object.
+	 *
+	 * @param path is the file to load from
+	 * @return the loaded hash table
+	 * @throws IOException if the file cannot be read or is not a snapshot
+	 */
+	public static <T> HashTable<T> load(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Snapshot larger than 2 GB cannot be mapped");
+			}
+			MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (in.remaining() < 8 || in.getInt() != MAGIC) {
+				throw new IOException(path + " is not a hash table snapshot");
+			}
+			int version = in.getInt();
+			if (version < 1 || version > VERSION) {
+				throw new IOException("Unknown snapshot version " + version);
+			}
+			int tableSize = in.getInt();
+			int tableType = in.getInt();
+			HashFunction hashFunction = HashFunction.JAVA;
+			if (version >= 2) {
+				try {
+					hashFunction = HashFunction.of(in.getInt());
+				} catch (IllegalArgumentException e) {
+					throw new IOException(e.getMessage(), e);
+				}
+			}
+			double maxLoadFactor = in.getDouble();
+			double tombstoneThreshold = in.getDouble();
+			long totalProbs = in.getLong();
+			long totalInsert = in.getLong();
+			long duplicateCount = in.getLong();
+			long liveCount = in.getLong();
+			long deletedCount = in.getLong();
+
+			HashTable<T> hashTable = new HashTable<T>(tableSize, tableType, maxLoadFactor, hashFunction);
+			for (int i = 0; i < tableSize; i++) {
+				byte condition = in.get();
+				if (condition == NIL) {
+					continue;
+				}
+				if (condition == DELETED) {
+					hashTable.restoreDeleted(i);
+					continue;
+				}
+				int frequency = in.getInt();
+				int probCount = in.getInt();
+				boolean hashed = version >= 3;
+				int key = hashed ? in.getInt() : 0;
+				Object object;
+				if (condition == INTEGER) {
+					object = in.getInt();
+				} else if (condition == LONG) {
+					object = in.getLong();
+				} else if (condition == STRING) {
+					byte[] bytes = new byte[in.getInt()];
+					in.get(bytes);
+					object = new String(bytes, StandardCharsets.UTF_8);
+				} else {
+					throw new IOException("Unknown index condition " + condition + " at index " + i);
+				}
+				if (!hashed) {
+					key = hashFunction.hash(object);
+				}
+				hashTable.restore(i, new HashObject<T>(frequency, probCount, object, key));
+			}
+			hashTable.restoreCounters(totalProbs, totalInsert, duplicateCount, (int) liveCount, (int) deletedCount,
+					tombstoneThreshold);
+			return hashTable;
+		} catch (BufferUnderflowException e) {
+			throw new IOException(path + " is truncated", e);
+		}
+	}
+
+}
@@ -0,0 +1,223 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * HashTableSubscriber class inserts batches of keys into one or more hash
+ * tables until every table has its target number of inserts, the inserts of
+ * its target load. It asks for one batch at a time, so at most one batch is
+ * waiting, and cancels the publisher as soon as the targets are reached. Keys
+ * go into every table, the same as the loops of HashTest: a table already at
+ * its target still counts the keys the others need.
+ * <p>
+ * A batch is inserted with insertAll in blocks no larger than the inserts the
+ * tables are still short of. Each key adds at most one insert, so that stops
+ * at the same key as inserting one at a time. With counted runs every key goes
+ * through a FrequencyCounter of each table instead, which adds a run of the
+ * same key with one insert, and the counters are flushed when the subscriber
+ * is done.
+ *
+ * @author Sajia Zafreen
+ *
+ * @param <T>
+ */
+public class HashTableSubscriber<T> implements Flow.Subscriber<List<T>> {
+
+	private final List<OpenHashTable<T>> tables;
+	private final long[] targets; // inserts of each table at its target load
+	private final List<FrequencyCounter<T>> counters; // empty unless runs are counted
+	private final CompletableFuture<Long> completion = new CompletableFuture<Long>();
+	private Flow.Subscription subscription;
+	private long taken; // keys given to the tables
+	private boolean stopped;
+
+	/**
+	 * Constructor with the same target number of inserts for every table
+	 *
+	 * @param tables      is the hash tables
+	 * @param inputNumber is the number of inserts of each table at the target
+	 *                    load
+	 * @param countRuns   is if runs of the same key are counted before they are
+	 *                    inserted
+	 */
+	public HashTableSubscriber(List<? extends OpenHashTable<T>> tables, long inputNumber, boolean countRuns) {
+		this(tables, targets(tables.size(), inputNumber), countRuns);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param tables    is the hash tables
+	 * @param targets   is the number of inserts of each table at its target load
+	 * @param countRuns is if runs of the same key are counted before they are
+	 *                  inserted
+	 */
+	private HashTableSubscriber(List<? extends OpenHashTable<T>> tables, long[] targets, boolean countRuns) {
+		this.tables = new ArrayList<OpenHashTable<T>>(tables);
+		this.targets = targets;
+		this.counters = new ArrayList<FrequencyCounter<T>>();
+		if (countRuns) {
+			for (OpenHashTable<T> table : tables) {
+				counters.add(new FrequencyCounter<T>(table));
+			}
+		}
+	}
+
+	/**
+	 * Returns a subscriber which fills every table to the given load factor of
+	 * its own size
+	 *
+	 * @param tables     is the hash tables
+	 * @param loadFactor is the target load factor
+	 * @param countRuns  is if runs of the same key are counted before they are
+	 *                   inserted
+	 * @return the subscriber
+	 */
+	public static <T> HashTableSubscriber<T> atLoad(List<? extends OpenHashTable<T>> tables, double loadFactor,
+			boolean countRuns) {
+		if (loadFactor <= 0 || loadFactor >= 1) {
+			throw new IllegalArgumentException("Load factor should be a less than 1 and greater than zero");
+		}
+		long[] targets = new long[tables.size()];
+		for (int i = 0; i < targets.length; i++) {
+			targets[i] = (long) Math.ceil(loadFactor * tables.get(i).getTableSize());
+		}
+		return new HashTableSubscriber<T>(tables, targets, countRuns);
+	}
+
+	/**
+	 * Returns the same target for every table
+	 *
+	 * @param count       is the number of tables
+	 * @param inputNumber is the target
+	 * @return the targets
+	 */
+	private static long[] targets(int count, long inputNumber) {
+		long[] targets = new long[count];
+		Arrays.fill(targets, inputNumber);
+		return targets;
+	}
+
+	/**
+	 * Returns the number of inserts the table furthest from its target is short
+	 * of
+	 *
+	 * @return the number of missing inserts, 0 or less if none
+	 */
+	private long missingInput() {
+		long missing = 0;
+		for (int i = 0; i < targets.length; i++) {
+			missing = Math.max(missing, targets[i] - tables.get(i).getTotalInsert());
+		}
+		return missing;
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		if (this.subscription != null) {
+			subscription.cancel(); // one publisher only
+			return;
+		}
+		this.subscription = subscription;
+		if (missingInput() <= 0) {
+			stop();
+		} else {
+			subscription.request(1);
+		}
+	}
+
+	@Override
+	public void onNext(List<T> batch) {
+		if (stopped) {
+			return;
+		}
+		if (counters.isEmpty()) {
+			int offset = 0;
+			long missing;
+			while (offset < batch.size() && (missing = missingInput()) > 0) {
+				int count = (int) Math.min(missing, batch.size() - offset);
+				// a view of the batch, the whole batch unless the targets are close
+				List<T> block = count == batch.size() ? batch : batch.subList(offset, offset + count);
+				for (OpenHashTable<T> table : tables) {
+					table.insertAll(block);
+				}
+				offset += count;
+			}
+			taken += offset;
+		} else {
+			for (T key : batch) {
+				if (missingInput() <= 0) {
+					break;
+				}
+				for (FrequencyCounter<T> counter : counters) {
+					counter.add(key);
+				}
+				taken++;
+			}
+		}
+		if (missingInput() <= 0) {
+			stop();
+		} else {
+			subscription.request(1);
+		}
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		if (!stopped) {
+			stopped = true;
+			flush();
+			completion.completeExceptionally(throwable);
+		}
+	}
+
+	@Override
+	public void onComplete() {
+		if (!stopped) {
+			stopped = true;
+			flush();
+			completion.complete(taken);
+		}
+	}
+
+	/**
+	 * Cancels the publisher once every table reached its target
+	 */
+	private void stop() {
+		stopped = true;
+		subscription.cancel();
+		flush();
+		completion.complete(taken);
+	}
+
+	/**
+	 * Adds the counted runs to the tables
+	 */
+	private void flush() {
+		for (FrequencyCounter<T> counter : counters) {
+			counter.flush();
+		}
+	}
+
+	/**
+	 * Returns the number of keys given to the tables, once the targets are
+	 * reached or the publisher ended, completed exceptionally if it failed
+	 *
+	 * @return the number of keys given to the tables
+	 */
+	public CompletableFuture<Long> getCompletion() {
+		return completion;
+	}
+
+	/**
+	 * Returns the hash tables
+	 *
+	 * @return the hash tables
+	 */
+	public List<OpenHashTable<T>> getTables() {
+		return tables;
+	}
+
+}
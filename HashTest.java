@@ -1,13 +1,22 @@
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
- * HashTest class simulates a hash table of linear-hashing and double-hashing
- * using three types of hash objects integer, Long, and String.
+ * HashTest class simulates a hash table of linear-hashing and double-hashing,
+ * and optionally quadratic and Robin Hood hashing, using three types of hash
+ * objects integer, Long, and String. Every input is read through the same
+ * pipeline: a KeyPublisher makes the keys only as they are asked for, a
+ * BatchProcessor collects them into blocks and a HashTableSubscriber inserts
+ * them and cancels the input once the load factor is reached.
  * 
  * @author Sajia Zafreen
  *
@@ -17,12 +26,29 @@ public class HashTest {
 
 	private static TwinPrimeGenerator primeNumber;
 	private static double loadFactor;
+	private static int[] tableTypes = { 1, 2 }; // linear and double unless given on the command line
+
+	private static final double[] SWEEP_LOAD_FACTORS = { 0.5, 0.6, 0.7, 0.8, 0.9, 0.95, 0.98, 0.99 };
+	private static final int[] SWEEP_TYPES = { 1, 2, 3, 4, SwissHashTable.TABLE_TYPE, CuckooHashTable.TABLE_TYPE };
+	private static final String[] DATA_SOURCES = { "Integer:java.util.Random", "Long:System.currentTimeMillis()",
+			"String:File Name -> word-list", "String:Standard input" };
+	private static final int BLOCK_SIZE = 64; // keys given to insertAll at a time
 
 	public static void main(String[] args) {
 		primeNumber = new TwinPrimeGenerator(2); // twin prime from two iterations
 		int inputNumber = 0;
 		int tableSize = primeNumber.getTwinPrime(95500, 96000);
-		if (args.length == 2) {
+		if (args.length >= 1 && args[0].equals("sweep")) {
+			try {
+				long seed = args.length >= 2 ? Long.parseLong(args[1]) : System.nanoTime();
+				int[] types = args.length >= 3 ? parseTableTypes(args[2]) : SWEEP_TYPES;
+				sweep(tableSize, seed, types);
+			} catch (IllegalArgumentException e) { // NumberFormatException or an unknown table type
+				System.out.println("Seed and table types should be numbers");
+				printUsage();
+				System.exit(1);
+			}
+		} else if (args.length == 2) {
 			try {
 				loadFactor = Double.parseDouble(args[1]);
 				if (loadFactor < 1 && loadFactor > 0) {
@@ -42,6 +68,9 @@ public class HashTest {
 				} else if (args[0].equals("3")) {
 					generalPrint("String:File Name -> word-list", tableSize);
 					simulationString(inputNumber, tableSize, 0);
+				} else if (args[0].equals("4")) {
+					generalPrint("String:Standard input", tableSize);
+					simulationLines(KeyPublisher.lines(System.in), inputNumber, tableSize, 0);
 				} else {
 					printUsage();
 					System.exit(1);
@@ -51,8 +80,11 @@ public class HashTest {
 				printUsage();
 				System.exit(1);
 			}
-		} else if (args.length == 3) {
+		} else if (args.length == 3 || args.length == 4) {
 			try {
+				if (args.length == 4) {
+					tableTypes = parseTableTypes(args[3]);
+				}
 				loadFactor = Double.parseDouble(args[1].toString());
 				if (loadFactor < 1 && loadFactor > 0) {
 					inputNumber = (int) (Math.ceil(loadFactor * tableSize));
@@ -73,12 +105,15 @@ public class HashTest {
 				} else if (args[0].equals("3")) {
 					generalPrint("String:File Name -> word-list", tableSize);
 					simulationString(inputNumber, tableSize, debug);
+				} else if (args[0].equals("4")) {
+					generalPrint("String:Standard input", tableSize);
+					simulationLines(KeyPublisher.lines(System.in), inputNumber, tableSize, debug);
 				} else {
 					printUsage();
 					System.exit(1);
 				}
-			} catch (NumberFormatException e) {
-				System.out.println("Load factor and debug should be numbers");
+			} catch (IllegalArgumentException e) { // NumberFormatException or an unknown table type
+				System.out.println("Load factor, debug and table types should be numbers");
 				printUsage();
 				System.exit(1);
 			}
@@ -99,26 +134,11 @@ public class HashTest {
 	private static void simulationInteger(int inputNumber, int tableSize, int debug) {
 		// lowest time needed for this simulation as duplicates will be very very few or
 		// no duplicates
-		HashTable<Integer> intLinearTable = new HashTable<Integer>(tableSize, 1); // creating linear hash table
-		HashTable<Integer> intDoubleTable = new HashTable<Integer>(tableSize, 2);
+		List<OpenHashTable<Integer>> intTables = createTables(tableSize); // one hash table for each table type
 
-		Random random = new Random();
-		int intRandom = 0;
-		while (intLinearTable.getTotalInsert() < inputNumber || intDoubleTable.getTotalInsert() < inputNumber) {
-			intRandom = random.nextInt();
+		ingest(KeyPublisher.randomInts(new Random()), intTables, inputNumber, false);
 
-			intLinearTable.insert(intRandom);
-			intDoubleTable.insert(intRandom);
-		}
-
-		if (debug == 0) {
-			zeroDebug(intLinearTable, "Linear");
-			zeroDebug(intDoubleTable, "Double");
-		}
-		if (debug == 1) {
-			oneDebug(intLinearTable, "Linear", tableSize);
-			oneDebug(intDoubleTable, "Double", tableSize);
-		}
+		printTables(intTables, tableSize, debug);
 	}
 
 	/**
@@ -131,25 +151,11 @@ public class HashTest {
 	 */
 	private static void simulationLong(int inputNumber, int tableSize, int debug) {
 		// highest time needed in this simulation as so many duplicates
-		HashTable<Long> lngLinearTable = new HashTable<Long>(tableSize, 1); // creating linear hash table
-		HashTable<Long> lngDoubleTable = new HashTable<Long>(tableSize, 2);
-		Long systemTime;
-		while (lngLinearTable.getTotalInsert() < inputNumber || lngDoubleTable.getTotalInsert() < inputNumber) {
-			systemTime = System.currentTimeMillis();
-
-			lngLinearTable.insert(systemTime);
-			lngDoubleTable.insert(systemTime);
-		}
-
-		if (debug == 0) {
-			zeroDebug(lngLinearTable, "Linear");
-			zeroDebug(lngDoubleTable, "Double");
-		}
-		if (debug == 1) {
-			oneDebug(lngLinearTable, "Linear", tableSize);
-			oneDebug(lngDoubleTable, "Double", tableSize);
-		}
+		List<OpenHashTable<Long>> lngTables = createTables(tableSize); // one hash table for each table type
+		// each run of the same time stamp is added to its hash object in one insert
+		ingest(KeyPublisher.clockLongs(), lngTables, inputNumber, true);
 
+		printTables(lngTables, tableSize, debug);
 	}
 
 	/**
@@ -163,37 +169,226 @@ public class HashTest {
 	private static void simulationString(int inputNumber, int tableSize, int debug) {
 		// medium amount of time needed among the three simulations, as it is a word
 		// list and may have lot of duplicates
-		HashTable<String> strLinearTable = new HashTable<String>(tableSize, 1); // creating linear hash table
-		HashTable<String> strDoubleTable = new HashTable<String>(tableSize, 2);
 
+		// the words are read from the mapped file as they are inserted, so only the
+		// part of the list up to the load factor is ever read
 		try {
-			String input = new String(Files.readAllBytes(Paths.get("word-list")));
-			String[] parseInput = input.split("\\r?\\n");
-			String fileString;
-			for (int strLen = 0; strLen < parseInput.length; strLen++) {// load Until
-				fileString = parseInput[strLen];
+			simulationLines(KeyPublisher.lines(Paths.get("word-list")), inputNumber, tableSize, debug);
+		} catch (IOException e) {
+			System.out.println("File not Found");
+			printUsage();
+			System.exit(1);
+		}
+	}
 
-				if (strLinearTable.getTotalInsert() < inputNumber || strDoubleTable.getTotalInsert() < inputNumber) {
-					strLinearTable.insert(fileString);
-					strDoubleTable.insert(fileString);
-				} else {
-					break;
+	/**
+	 * Simulates the hash tables of the simulation using lines of text, until the
+	 * load factor is reached or the lines end
+	 * 
+	 * @param lines       is the publisher of the lines
+	 * @param inputNumber is the highest number of inputs in hash table of the
+	 *                    corresponding load factor
+	 * @param tableSize   is the size of the hash table
+	 * @param debug       is the debug level of the simulation output
+	 */
+	private static void simulationLines(KeyPublisher<String> lines, int inputNumber, int tableSize, int debug) {
+		List<OpenHashTable<String>> strTables = createTables(tableSize); // one hash table for each table type
+		try {
+			ingest(lines, strTables, inputNumber, false);
+		} catch (CompletionException e) {
+			System.out.println("Cannot read input: " + e.getCause());
+			printUsage();
+			System.exit(1);
+		}
+
+		printTables(strTables, tableSize, debug);
+	}
+
+	/**
+	 * Runs every input type, load factor and table type at the same time on a
+	 * fork-join pool and prints the average number of probes of every table type
+	 * in one report. Each run fills one hash table from its own Random, seeded
+	 * from the given seed and the input type and load factor, so the runs of the
+	 * table types of one input type and load factor get the same integers.
+	 * 
+	 * @param tableSize is the size of the hash tables
+	 * @param seed      is the seed of the random inputs
+	 * @param types     is the table types
+	 */
+	private static void sweep(int tableSize, long seed, int[] types) {
+		Path words = Paths.get("word-list");
+		int sources = 3;
+		if (!Files.isReadable(words)) {
+			System.out.println("word-list not found, String input skipped");
+			sources = 2;
+		}
+
+		ForkJoinPool pool = new ForkJoinPool();
+		List<Future<List<OpenHashTable<Object>>>> runs = new ArrayList<Future<List<OpenHashTable<Object>>>>();
+		for (int source = 1; source <= sources; source++) {
+			for (int factor = 0; factor < SWEEP_LOAD_FACTORS.length; factor++) {
+				int inputNumber = (int) (Math.ceil(SWEEP_LOAD_FACTORS[factor] * tableSize));
+				long runSeed = seed * 31 * 31 + source * 31 + factor;
+				final int inputType = source;
+				final Path input = words;
+				for (int tableType : types) {
+					int[] runType = { tableType };
+					runs.add(pool.submit(() -> sweepRun(inputType, inputNumber, tableSize, runType, runSeed, input)));
+				}
+			}
+		}
+
+		System.out.println("\nA good table size is found: " + tableSize);
+		System.out.println("Sweep seed: " + seed);
+		try {
+			int run = 0;
+			for (int source = 1; source <= sources; source++) {
+				System.out.println("\n\n Input source " + source + ": " + DATA_SOURCES[source - 1] + "\n");
+				StringBuilder header = new StringBuilder(" alpha");
+				for (int i = 0; i < types.length; i++) {
+					String tableName = runs.get(run + i).get().get(0).getTableName();
+					header.append(String.format("\t%-12s", tableName.toLowerCase()));
 				}
+				System.out.println(header);
+				System.out.println(" " + "-".repeat(8 + 13 * types.length));
+				for (double factor : SWEEP_LOAD_FACTORS) {
+					StringBuilder line = new StringBuilder(" " + factor);
+					for (int i = 0; i < types.length; i++) {
+						OpenHashTable<Object> hashTable = runs.get(run++).get().get(0);
+						double probes = ((double) hashTable.getTotalProbs()) / (double) (hashTable.getTotalInsert());
+						line.append(String.format("\t%-12.5f", probes));
+					}
+					System.out.println(line);
+				}
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			System.out.println("Sweep failed: " + e);
+			System.exit(1);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Returns a hash table of each given type filled to the input number from
+	 * one input type
+	 * 
+	 * @param inputType   is 1 for Random integers, 2 for the system time and 3
+	 *                    for the word-list
+	 * @param inputNumber is the highest number of inputs in hash table of the
+	 *                    corresponding load factor
+	 * @param tableSize   is the size of the hash tables
+	 * @param types       is the types of hashing
+	 * @param seed        is the seed of the Random integers
+	 * @param words       is the path of the word-list
+	 * @return the filled hash tables
+	 * @throws IOException if the word-list cannot be read
+	 */
+	private static List<OpenHashTable<Object>> sweepRun(int inputType, int inputNumber, int tableSize, int[] types,
+			long seed, Path words) throws IOException {
+		List<OpenHashTable<Object>> tables = createTables(tableSize, types);
+		KeyPublisher<?> keys;
+		if (inputType == 1) {
+			keys = KeyPublisher.randomInts(new Random(seed));
+		} else if (inputType == 2) {
+			keys = KeyPublisher.clockLongs();
+		} else {
+			keys = KeyPublisher.lines(words);
+		}
+		try {
+			ingest(keys, tables, inputNumber, false);
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
 			}
+			throw e;
+		}
+		return tables;
+	}
 
-			if (debug == 0) {
-				zeroDebug(strLinearTable, "Linear");
-				zeroDebug(strDoubleTable, "Double");
+	/**
+	 * Inserts the keys of a publisher into every hash table until each has the
+	 * input number of inserts or the keys end. Keys are only made as the tables
+	 * ask for them, a block at a time.
+	 * 
+	 * @param keys        is the publisher of the keys
+	 * @param tables      is the hash tables
+	 * @param inputNumber is the highest number of inputs in hash table of the
+	 *                    corresponding load factor
+	 * @param countRuns   is if runs of the same key are counted before they are
+	 *                    inserted
+	 * @throws CompletionException if the keys cannot be read
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> void ingest(KeyPublisher<? extends T> keys, List<OpenHashTable<T>> tables, int inputNumber,
+			boolean countRuns) {
+		((KeyPublisher<T>) keys).ingest(BLOCK_SIZE, new HashTableSubscriber<T>(tables, inputNumber, countRuns)).join();
+	}
+
+	/**
+	 * Returns the table types in a comma separated list such as 1,2,3,4
+	 * 
+	 * @param list is the comma separated table types
+	 * @return the table types
+	 */
+	private static int[] parseTableTypes(String list) {
+		String[] parts = list.split(",");
+		int[] types = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			int tableType = Integer.parseInt(parts[i].trim());
+			if (tableType != SwissHashTable.TABLE_TYPE && tableType != CuckooHashTable.TABLE_TYPE) {
+				ProbeType.of(tableType); // throws for an unknown table type
 			}
-			if (debug == 1) {
-				oneDebug(strLinearTable, "Linear", tableSize);
-				oneDebug(strDoubleTable, "Double", tableSize);
+			types[i] = tableType;
+		}
+		return types;
+	}
+
+	/**
+	 * Returns an empty hash table of each table type of the simulation
+	 * 
+	 * @param tableSize is the size of the hash tables
+	 * @return the hash tables
+	 */
+	private static <T> List<OpenHashTable<T>> createTables(int tableSize) {
+		return createTables(tableSize, tableTypes);
+	}
+
+	/**
+	 * Returns an empty hash table of each given table type
+	 * 
+	 * @param tableSize is the size of the hash tables
+	 * @param types     is the table types
+	 * @return the hash tables
+	 */
+	private static <T> List<OpenHashTable<T>> createTables(int tableSize, int[] types) {
+		List<OpenHashTable<T>> tables = new ArrayList<OpenHashTable<T>>();
+		for (int tableType : types) {
+			if (tableType == SwissHashTable.TABLE_TYPE) {
+				tables.add(new SwissHashTable<T>(tableSize));
+			} else if (tableType == CuckooHashTable.TABLE_TYPE) {
+				tables.add(new CuckooHashTable<T>(tableSize));
+			} else {
+				tables.add(new HashTable<T>(tableSize, tableType));
 			}
+		}
+		return tables;
+	}
 
-		} catch (IOException e) {
-			System.out.println("File not Found");
-			printUsage();
-			System.exit(1);
+	/**
+	 * Prints the summary of each hash table, and for debug level 1 and above
+	 * writes the dump files of every hash table at the same time
+	 * 
+	 * @param tables    is the hash tables
+	 * @param tableSize is the size of the hash tables
+	 * @param debug     is the debug level of the simulation output
+	 */
+	private static <T> void printTables(List<OpenHashTable<T>> tables, int tableSize, int debug) {
+		for (OpenHashTable<T> table : tables) {
+			zeroDebug(table, table.getTableName());
+		}
+		if (debug >= DumpWriter.TEXT && debug <= DumpWriter.BINARY) {
+			writeDumps(tables, debug);
 		}
 	}
 
@@ -215,9 +410,9 @@ public class HashTest {
 	 * @param hashTable is the hash table
 	 * @param tableType is the type of hashing
 	 */
-	private static <T> void zeroDebug(HashTable<T> hashTable, String tableType) {
+	private static <T> void zeroDebug(OpenHashTable<T> hashTable, String tableType) {
 		double probes = ((double) hashTable.getTotalProbs()) / (double) (hashTable.getTotalInsert());
-		int totalInput = hashTable.getTotalInsert() + hashTable.getDuplicateCount();
+		long totalInput = hashTable.getTotalInsert() + hashTable.getDuplicateCount();
 		System.out.println("\n\n");
 		System.out.println("Using " + tableType + " Hashing...");
 		System.out.print("Input " + totalInput + " elements");
@@ -226,30 +421,26 @@ public class HashTest {
 	}
 
 	/**
-	 * Prints a summary of the current simulation in the console and prints a dump
-	 * file of the current simulation of the current hashing
+	 * Writes a dump file of each hash table on background threads and waits for
+	 * all of them
 	 * 
-	 * @param hashTable is hash table
-	 * @param tableType is the type of hashing
-	 * @param tableSize is the size of the hash table
+	 * @param tables is the hash tables
+	 * @param format is the format of the dump files, which is the debug level
 	 */
-	private static <T> void oneDebug(HashTable<T> hashTable, String tableType, int tableSize) {
-		zeroDebug(hashTable, tableType);
-		String fileName = tableType + "-dump";
-
-		PrintWriter out;
-		try {
-			out = new PrintWriter(new FileWriter(fileName)); // use FileWriter instead System.setout (PrintStream)
-			// then only one file for output stream and the console output is not printed
-
-			for (int i = 0; i < tableSize; i++) {
-				if (hashTable.getTableContent(i) != null) {
-					out.println("table[" + i + "]: " + hashTable.getTableContent(i).toString());
+	private static <T> void writeDumps(List<OpenHashTable<T>> tables, int format) {
+		try (DumpWriter dumpWriter = new DumpWriter(format)) {
+			List<Future<Void>> dumps = new ArrayList<Future<Void>>();
+			for (OpenHashTable<T> table : tables) {
+				if (format == DumpWriter.BINARY && !(table instanceof HashTable)) {
+					System.out.println(table.getTableName() + " hashing has no binary snapshot, its dump is skipped");
+					continue;
 				}
+				dumps.add(dumpWriter.submit(table, table.getTableName() + "-dump"));
 			}
-			out.close(); // must must must use it
-
-		} catch (IOException e) {
+			for (Future<Void> dump : dumps) {
+				dump.get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
 			System.out.println("Cannot Open file");
 			printUsage();
 			System.exit(1);
@@ -260,13 +451,20 @@ public class HashTest {
 	 * Prinsts usage message on the console.
 	 */
 	private static void printUsage() {
-		System.out.println("Usage: $ java HashTest <input type> <load factor> <debug level>");
+		System.out.println("Usage: $ java HashTest <input type> <load factor> <debug level> <table types>");
 		System.out.println(
-				"<input type> 1, 2, or 3 \n 1: java.util.Random \n 2: System.currentTimeMillis() \n 3: word-list.");
+				"<input type> 1, 2, 3 or 4 \n 1: java.util.Random \n 2: System.currentTimeMillis() \n 3: word-list."
+						+ " \n 4: standard input, one key per line");
 		System.out.println("<load factor> any numbers of 0.5, 0.6, 0.7, 0.8, 0.9, 0.95, 0.98, 0.99");
 		System.out.println("optional <debug level> \n 0: print summary of experiment on the console "
 				+ "\n 1: print summary of experiment on the console \n\tand print the hash tables with number of duplicates "
-				+ "and number of probes into two files linear-dump and double-dump.");
+				+ "and number of probes into two files linear-dump and double-dump."
+				+ "\n 2: same as 1 with gzip dump files \n 3: same as 1 with binary snapshot dump files");
+		System.out.println("optional <table types> comma separated, default 1,2 \n 1: linear \n 2: double "
+				+ "\n 3: quadratic \n 4: Robin Hood \n 5: Swiss table, 8 indexes probed at once \n 6: cuckoo, at most two buckets per lookup");
+		System.out.println("   or: $ java HashTest sweep <seed> <table types>");
+		System.out.println("runs every input type, load factor and table type in parallel, optional <seed> "
+				+ "and <table types>, default all six");
 	}
 
 }
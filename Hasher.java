@@ -0,0 +1,39 @@
+/**
+ * Hasher interface turns a key into the hash key a hash table probes with. A
+ * String must hash the same as a CharSequence of its characters, and the bytes
+ * of Latin-1 text, such as the words of WordListReader, the same as the String
+ * of those bytes, so a key can be looked up in any of the three forms.
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public interface Hasher {
+
+	/**
+	 * Returns the hash key of an object
+	 *
+	 * @param object is the object to be hashed
+	 * @return the hash key
+	 */
+	int hash(Object object);
+
+	/**
+	 * Returns the hash key of a sequence of characters, without making a String
+	 *
+	 * @param chars is the characters to be hashed
+	 * @return the hash key
+	 */
+	int hash(CharSequence chars);
+
+	/**
+	 * Returns the hash key of bytes of an array, each byte taken as one Latin-1
+	 * character
+	 *
+	 * @param bytes  is the array holding the key
+	 * @param offset is the first byte of the key
+	 * @param length is the number of bytes of the key
+	 * @return the hash key
+	 */
+	int hash(byte[] bytes, int offset, int length);
+
+}
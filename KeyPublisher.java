@@ -0,0 +1,273 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * KeyPublisher class publishes the keys of one source, such as the inputs of
+ * HashTest, to one subscriber. A key is only made when the subscriber has
+ * asked for it, so a subscriber which stops asking, or cancels, stops the
+ * source, and a file or stream is closed as soon as it is not needed. Keys are
+ * sent on the given executor, by default on the thread asking for them.
+ *
+ * @author Sajia Zafreen
+ *
+ * @param <T>
+ */
+public class KeyPublisher<T> implements Flow.Publisher<T> {
+
+	/**
+	 * Source interface makes the keys of a publisher
+	 *
+	 * @param <T>
+	 */
+	public interface Source<T> {
+
+		/**
+		 * Returns the next key
+		 *
+		 * @return the next key, or null at the end of the source
+		 * @throws IOException if the key cannot be read
+		 */
+		T next() throws IOException;
+
+	}
+
+	private final Source<T> source;
+	private final Closeable resource; // closed at the end, on cancel or on error, may be null
+	private final Executor executor;
+	private final AtomicBoolean subscribed = new AtomicBoolean();
+
+	/**
+	 * Constructor of a publisher sending keys on the thread asking for them
+	 *
+	 * @param source   is the source of the keys
+	 * @param resource is closed once the keys are no longer needed, or null
+	 */
+	public KeyPublisher(Source<T> source, Closeable resource) {
+		this(source, resource, Runnable::run);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param source   is the source of the keys
+	 * @param resource is closed once the keys are no longer needed, or null
+	 * @param executor is the executor the keys are sent on
+	 */
+	public KeyPublisher(Source<T> source, Closeable resource, Executor executor) {
+		this.source = source;
+		this.resource = resource;
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns a publisher of the integers of a Random, which never ends
+	 *
+	 * @param random is the Random
+	 * @return the publisher
+	 */
+	public static KeyPublisher<Integer> randomInts(Random random) {
+		return new KeyPublisher<Integer>(random::nextInt, null);
+	}
+
+	/**
+	 * Returns a publisher of System.currentTimeMillis(), which never ends
+	 *
+	 * @return the publisher
+	 */
+	public static KeyPublisher<Long> clockLongs() {
+		return new KeyPublisher<Long>(System::currentTimeMillis, null);
+	}
+
+	/**
+	 * Returns a publisher of the lines of a file, read from a memory mapped file
+	 * by WordListReader
+	 *
+	 * @param path is the path of the file
+	 * @return the publisher
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static KeyPublisher<String> lines(Path path) throws IOException {
+		WordListReader reader = new WordListReader(path);
+		return new KeyPublisher<String>(reader::next, reader);
+	}
+
+	/**
+	 * Returns a publisher of the lines of a stream, such as System.in. The stream
+	 * is closed at the end.
+	 *
+	 * @param in is the stream
+	 * @return the publisher
+	 */
+	public static KeyPublisher<String> lines(InputStream in) {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()));
+		return new KeyPublisher<String>(reader::readLine, reader);
+	}
+
+	/**
+	 * Sends the keys in batches to a hash table subscriber
+	 *
+	 * @param batchSize is the number of keys of a batch
+	 * @param sink      is the subscriber inserting the keys
+	 * @return the number of keys inserted, once the subscriber is done
+	 */
+	public CompletableFuture<Long> ingest(int batchSize, HashTableSubscriber<T> sink) {
+		BatchProcessor<T> batches = new BatchProcessor<T>(batchSize);
+		subscribe(batches);
+		batches.subscribe(sink);
+		return sink.getCompletion();
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		if (!subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException("KeyPublisher has only one subscriber"));
+			return;
+		}
+		KeySubscription subscription = new KeySubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+
+	/**
+	 * Closes the resource, ignoring a failure as the keys are no longer needed
+	 */
+	private void close() {
+		if (resource != null) {
+			try {
+				resource.close();
+			} catch (IOException e) {
+				// nothing more is read from it
+			}
+		}
+	}
+
+	/**
+	 * KeySubscription class sends keys while the subscriber has asked for more.
+	 * Only one thread sends at a time, and a request made while keys are being
+	 * sent, even from onNext, is taken by the same loop.
+	 */
+	private final class KeySubscription implements Flow.Subscription {
+
+		private final Flow.Subscriber<? super T> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger pending = new AtomicInteger(); // requests and cancels not yet handled
+		private volatile boolean cancelled;
+		private volatile Throwable badRequest;
+		private boolean done; // sending thread only
+
+		/**
+		 * Constructor
+		 *
+		 * @param subscriber is the subscriber
+		 */
+		KeySubscription(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				badRequest = new IllegalArgumentException("Request should be positive, was " + n);
+			} else {
+				demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+			}
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			drain();
+		}
+
+		/**
+		 * Sends keys on the executor unless they are being sent already
+		 */
+		private void drain() {
+			if (pending.getAndIncrement() == 0) {
+				executor.execute(this::send);
+			}
+		}
+
+		/**
+		 * Sends keys until the demand is met, the source ends or the subscriber
+		 * cancels, and again for every request made meanwhile
+		 */
+		private void send() {
+			int missed = 1;
+			do {
+				if (!done) {
+					sendDemanded();
+				}
+				missed = pending.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		/**
+		 * Sends keys while there is demand
+		 */
+		private void sendDemanded() {
+			while (!done) {
+				if (cancelled) {
+					finish();
+					return;
+				}
+				if (badRequest != null) {
+					finish();
+					subscriber.onError(badRequest);
+					return;
+				}
+				if (demand.get() == 0) {
+					return;
+				}
+				T key;
+				try {
+					key = source.next();
+				} catch (IOException | RuntimeException e) {
+					finish();
+					subscriber.onError(e);
+					return;
+				}
+				if (key == null) {
+					finish();
+					subscriber.onComplete();
+					return;
+				}
+				if (demand.get() != Long.MAX_VALUE) {
+					demand.decrementAndGet();
+				}
+				subscriber.onNext(key);
+			}
+		}
+
+		/**
+		 * Stops sending and closes the resource
+		 */
+		private void finish() {
+			done = true;
+			close();
+		}
+
+	}
+
+}
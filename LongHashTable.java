@@ -0,0 +1,259 @@
+/**
+ * LongHashTable class is a hash table specialized for primitive long keys. It
+ * uses the same linear and double probing as HashTable, but keeps the keys,
+ * frequencies and probe counts in parallel arrays, so an insert never
+ * allocates a HashObject or a boxed Long
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public class LongHashTable {
+
+	private static final byte NIL = 0;
+	private static final byte OCCUPIED = 2;
+	private static final int BATCH_SIZE = 64; // keys read together by insertAll
+
+	private long[] keys;
+	private int[] frequency;
+	private int[] probCount;
+	private byte[] indexCondition; // one byte per slot, NIL until first insert
+	private int tableType; // 1 for linear, 2 for double
+	private int tableSize;
+
+	private long totalProbs; // for full hashTable for each of the insertion
+	private long totalInsert;
+	private long duplicateCount;
+
+	/**
+	 * Constructor
+	 *
+	 * @param tableSize is the table size of the hash table
+	 * @param tableType is the probing type, 1 for linear and 2 for double
+	 */
+	public LongHashTable(int tableSize, int tableType) {
+		this.keys = new long[tableSize];
+		this.frequency = new int[tableSize];
+		this.probCount = new int[tableSize];
+		this.indexCondition = new byte[tableSize];
+		this.tableType = tableType;
+		this.tableSize = tableSize;
+		this.totalProbs = 0;
+		this.totalInsert = 0;
+		this.duplicateCount = 0;
+	}
+
+	/**
+	 * Returns the hash value of modulus operation on the key, same as the
+	 * HashTable with the Long hash code
+	 *
+	 * @param key       is the key to be hashed
+	 * @param tableSize is the size of the hash table
+	 * @return the hash value from modulus operation on the key
+	 */
+	private static int modOperation(long key, int tableSize) {
+		int hashValue = Long.hashCode(key) % tableSize;
+		if (hashValue < 0) {
+			hashValue += tableSize;
+		}
+		return hashValue;
+	}
+
+	/**
+	 * Inserts a key to the hash table
+	 *
+	 * @param key is the key to be hashed in the hash table
+	 */
+	public void insert(long key) {
+		int j = modOperation(key, tableSize);
+		int step = (tableType == 2) ? 1 + modOperation(key, tableSize - 2) : 1;
+		for (int index = 1; index <= tableSize; index++) {
+			byte condition = indexCondition[j];
+			if (condition != OCCUPIED) {
+				keys[j] = key;
+				frequency[j] = 0;
+				probCount[j] = index;
+				indexCondition[j] = OCCUPIED;
+				totalInsert++;
+				totalProbs = totalProbs + index;
+				return;
+			}
+			if (keys[j] == key) {
+				frequency[j]++;
+				duplicateCount++;
+				return;
+			}
+			j += step; // same sequence as (primary + index * step) % tableSize
+			if (j >= tableSize) {
+				j -= tableSize;
+			}
+		}
+	}
+
+	/**
+	 * Inserts every key of the array, in order, with the same statistics as
+	 * inserting them one at a time. Keys are taken in blocks: the primary index
+	 * of every key of a block is read first, which are independent loads the
+	 * processor can have in flight together, and a key already stored at its
+	 * primary index is counted as a duplicate right away. Keys are never moved
+	 * once stored, so that gives the same result as any order. The rest of the
+	 * block is then inserted in order.
+	 *
+	 * @param keys is the keys to be hashed in the hash table
+	 */
+	public void insertAll(long[] keys) {
+		int[] homes = new int[BATCH_SIZE];
+		for (int from = 0; from < keys.length; from += BATCH_SIZE) {
+			int count = Math.min(BATCH_SIZE, keys.length - from);
+			for (int i = 0; i < count; i++) {
+				homes[i] = modOperation(keys[from + i], tableSize);
+			}
+			for (int i = 0; i < count; i++) {
+				int j = homes[i];
+				if (indexCondition[j] == OCCUPIED && this.keys[j] == keys[from + i]) {
+					frequency[j]++;
+					duplicateCount++;
+					homes[i] = -1;
+				}
+			}
+			for (int i = 0; i < count; i++) {
+				if (homes[i] >= 0) {
+					insert(keys[from + i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the index holding the key, following the same probe sequence as
+	 * insert
+	 *
+	 * @param key is the key to be searched in the hash table
+	 * @return the index of the key, or -1 if it is not in the hash table
+	 */
+	public int search(long key) {
+		int j = modOperation(key, tableSize);
+		int step = (tableType == 2) ? 1 + modOperation(key, tableSize - 2) : 1;
+		for (int index = 1; index <= tableSize; index++) {
+			if (indexCondition[j] != OCCUPIED) {
+				return -1;
+			}
+			if (keys[j] == key) {
+				return j;
+			}
+			j += step;
+			if (j >= tableSize) {
+				j -= tableSize;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns if the given index of the hash table holds a key
+	 *
+	 * @param index is the index of the hash table
+	 * @return if the index is occupied
+	 */
+	public boolean isOccupied(int index) {
+		return indexCondition[index] == OCCUPIED;
+	}
+
+	/**
+	 * Returns the key stored at the given index
+	 *
+	 * @param index is the index of the hash table
+	 * @return the key at the given index
+	 */
+	public long getKey(int index) {
+		return keys[index];
+	}
+
+	/**
+	 * Returns the frequency of the key stored at the given index
+	 *
+	 * @param index is the index of the hash table
+	 * @return the frequency of the key at the given index
+	 */
+	public int getFrequency(int index) {
+		return frequency[index];
+	}
+
+	/**
+	 * Returns the number of probes of the key stored at the given index
+	 *
+	 * @param index is the index of the hash table
+	 * @return the number of probes of the key at the given index
+	 */
+	public int getProbCount(int index) {
+		return probCount[index];
+	}
+
+	/**
+	 * Returns the hash table type
+	 *
+	 * @return the hash table type
+	 */
+	public int getTableType() {
+		return tableType;
+	}
+
+	/**
+	 * Returns the hash table size
+	 *
+	 * @return the hash table size
+	 */
+	public int getTableSize() {
+		return tableSize;
+	}
+
+	/**
+	 * Returns the total inserts in the hash table
+	 *
+	 * @return the total number of inserts in the hash table
+	 */
+	public long getTotalInsert() {
+		return this.totalInsert;
+	}
+
+	/**
+	 * Returns number of duplicates in the hash table
+	 *
+	 * @return number of duplicates in the hash table
+	 */
+	public long getDuplicateCount() {
+		return this.duplicateCount;
+	}
+
+	/**
+	 * Returns the number of total probes of inserted keys in the hash table
+	 *
+	 * @return the number of total probes of the inserted keys in the hash table
+	 */
+	public long getTotalProbs() {
+		return this.totalProbs;
+	}
+
+	/**
+	 * Returns if the hash table is empty or not
+	 *
+	 * @return if the hash table empty
+	 */
+	public boolean isEmpty() {
+		return this.totalInsert == 0;
+	}
+
+	/**
+	 * Returns the content of the given index in the same format as
+	 * HashObject.toString, or null if the index is not occupied
+	 *
+	 * @param index is the index of the hash table
+	 * @return the content of the index
+	 */
+	public String getTableContent(int index) {
+		if (indexCondition[index] != OCCUPIED) {
+			return null;
+		}
+		return keys[index] + " " + frequency[index] + " " + probCount[index];
+	}
+
+}
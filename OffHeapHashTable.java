@@ -0,0 +1,376 @@
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * OffHeapHashTable class is a hash table of fixed width keys kept outside of
+ * the Java heap. The index condition, frequency, number of probes and key of
+ * every index are packed into one direct ByteBuffer, so the table adds nothing
+ * for the garbage collector to scan however many indexes it has. The memory is
+ * freed by close.
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public class OffHeapHashTable implements Closeable {
+
+	private static final byte NIL = 0;
+	private static final byte OCCUPIED = 2;
+
+	// layout of one index: condition, 3 bytes padding, frequency, probes, key
+	private static final int CONDITION = 0;
+	private static final int FREQUENCY = 4;
+	private static final int PROB_COUNT = 8;
+	private static final int KEY = 12;
+
+	private ByteBuffer hashTable;
+	private final ProbeType probeType;
+	private final int tableSize;
+	private final int keyWidth; // bytes of every key
+	private final int slotSize;
+
+	private long totalProbs; // for full hashTable for each of the insertion
+	private long totalInsert;
+	private long duplicateCount;
+
+	/**
+	 * Constructor
+	 *
+	 * @param tableSize is the table size of the hash table
+	 * @param tableType is 1 for linear, 2 for double or 3 for quadratic hashing
+	 * @param keyWidth  is the number of bytes of every key, 4 for int keys and 8
+	 *                  for long keys
+	 */
+	public OffHeapHashTable(int tableSize, int tableType, int keyWidth) {
+		this.probeType = ProbeType.of(tableType);
+		if (probeType == ProbeType.ROBIN_HOOD) {
+			throw new IllegalArgumentException("Robin Hood hashing is not supported off heap");
+		}
+		if (keyWidth <= 0) {
+			throw new IllegalArgumentException("Key width should be greater than zero");
+		}
+		this.tableSize = tableSize;
+		this.keyWidth = keyWidth;
+		this.slotSize = (KEY + keyWidth + 7) & ~7; // keeps every key 8 byte aligned
+		long bytes = (long) tableSize * slotSize;
+		if (bytes > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Table of " + bytes + " bytes is larger than a ByteBuffer");
+		}
+		// allocateDirect returns zeroed memory, so every index starts NIL
+		this.hashTable = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Returns the hash value of modulus operation on the hash key
+	 *
+	 * @param key       is the hash key
+	 * @param tableSize is the size of the hash table
+	 * @return the hash value from modulus operation on hash key
+	 */
+	private static int modOperation(int key, int tableSize) {
+		int hashValue = key % tableSize;
+		if (hashValue < 0) {
+			hashValue += tableSize;
+		}
+		return hashValue;
+	}
+
+	/**
+	 * Inserts an int key, hashed the same as an Integer in HashTable
+	 *
+	 * @param key is the key to be inserted
+	 */
+	public void insert(int key) {
+		if (keyWidth != 4) {
+			throw new IllegalArgumentException("Int keys need a key width of 4");
+		}
+		insert(key, key, null, 0);
+	}
+
+	/**
+	 * Inserts a long key, hashed the same as a Long in HashTable
+	 *
+	 * @param key is the key to be inserted
+	 */
+	public void insert(long key) {
+		if (keyWidth != 8) {
+			throw new IllegalArgumentException("Long keys need a key width of 8");
+		}
+		insert(Long.hashCode(key), key, null, 0);
+	}
+
+	/**
+	 * Inserts the key width bytes of the array from the offset
+	 *
+	 * @param bytes  is the array holding the key
+	 * @param offset is the first byte of the key
+	 */
+	public void insert(byte[] bytes, int offset) {
+		if (offset < 0 || offset + keyWidth > bytes.length) {
+			throw new IndexOutOfBoundsException("Key of " + keyWidth + " bytes at " + offset);
+		}
+		insert(hashBytes(bytes, offset), 0, bytes, offset);
+	}
+
+	/**
+	 * Returns the hash key of the key width bytes from the offset, the same as
+	 * Arrays.hashCode of those bytes
+	 *
+	 * @param bytes  is the array holding the key
+	 * @param offset is the first byte of the key
+	 * @return the hash key
+	 */
+	private int hashBytes(byte[] bytes, int offset) {
+		int hash = 1;
+		for (int i = 0; i < keyWidth; i++) {
+			hash = 31 * hash + bytes[offset + i];
+		}
+		return hash;
+	}
+
+	/**
+	 * Inserts a key with the same probing as HashTable
+	 *
+	 * @param hash    is the hash key
+	 * @param longKey is the int or long key when the bytes are null
+	 * @param bytes   is the array holding a byte key, or null
+	 * @param offset  is the first byte of the key in the array
+	 */
+	private void insert(int hash, long longKey, byte[] bytes, int offset) {
+		ByteBuffer table = open();
+		int step = probeType.firstStep(hash, tableSize);
+		int j = modOperation(hash, tableSize);
+		for (int localCount = 1; localCount <= tableSize; localCount++) {
+			int base = j * slotSize;
+			if (table.get(base + CONDITION) == NIL) {
+				if (bytes == null) {
+					writeKey(table, base, longKey);
+				} else {
+					for (int i = 0; i < keyWidth; i++) {
+						table.put(base + KEY + i, bytes[offset + i]);
+					}
+				}
+				table.putInt(base + PROB_COUNT, localCount);
+				table.put(base + CONDITION, OCCUPIED);
+				totalInsert++;
+				totalProbs = totalProbs + localCount;
+				return;
+			}
+			if (bytes == null ? readKey(table, base) == longKey : equalBytes(table, base, bytes, offset)) {
+				table.putInt(base + FREQUENCY, table.getInt(base + FREQUENCY) + 1);
+				duplicateCount++;
+				return;
+			}
+			j += step;
+			if (j >= tableSize) {
+				j -= tableSize;
+			}
+			step = probeType.nextStep(step, tableSize);
+		}
+	}
+
+	/**
+	 * Writes an int or long key to the index starting at the given byte
+	 *
+	 * @param table is the buffer of the hash table
+	 * @param base  is the first byte of the index
+	 * @param key   is the key
+	 */
+	private void writeKey(ByteBuffer table, int base, long key) {
+		if (keyWidth == 4) {
+			table.putInt(base + KEY, (int) key);
+		} else {
+			table.putLong(base + KEY, key);
+		}
+	}
+
+	/**
+	 * Returns the int or long key of the index starting at the given byte
+	 *
+	 * @param table is the buffer of the hash table
+	 * @param base  is the first byte of the index
+	 * @return the key
+	 */
+	private long readKey(ByteBuffer table, int base) {
+		return keyWidth == 4 ? table.getInt(base + KEY) : table.getLong(base + KEY);
+	}
+
+	/**
+	 * Returns if the key of the index equals the bytes of the array
+	 *
+	 * @param table  is the buffer of the hash table
+	 * @param base   is the first byte of the index
+	 * @param bytes  is the array holding the key
+	 * @param offset is the first byte of the key in the array
+	 * @return if the keys are equal
+	 */
+	private boolean equalBytes(ByteBuffer table, int base, byte[] bytes, int offset) {
+		for (int i = 0; i < keyWidth; i++) {
+			if (table.get(base + KEY + i) != bytes[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the buffer of the hash table
+	 *
+	 * @return the buffer
+	 * @throws IllegalStateException if the table is closed
+	 */
+	private ByteBuffer open() {
+		if (hashTable == null) {
+			throw new IllegalStateException("Hash table is closed");
+		}
+		return hashTable;
+	}
+
+	/**
+	 * Returns if the given index of the hash table holds a key
+	 *
+	 * @param index is the index of the hash table
+	 * @return if the index is occupied
+	 */
+	public boolean isOccupied(int index) {
+		return open().get(index * slotSize + CONDITION) == OCCUPIED;
+	}
+
+	/**
+	 * Returns the int or long key stored at the given index
+	 *
+	 * @param index is the index of the hash table
+	 * @return the key at the given index
+	 */
+	public long getKey(int index) {
+		return readKey(open(), index * slotSize);
+	}
+
+	/**
+	 * Copies the key bytes stored at the given index to the array
+	 *
+	 * @param index  is the index of the hash table
+	 * @param bytes  is the array to copy the key to
+	 * @param offset is the first byte to copy to
+	 */
+	public void getKeyBytes(int index, byte[] bytes, int offset) {
+		open().get(index * slotSize + KEY, bytes, offset, keyWidth);
+	}
+
+	/**
+	 * Returns the frequency of the key stored at the given index
+	 *
+	 * @param index is the index of the hash table
+	 * @return the frequency of the key at the given index
+	 */
+	public int getFrequency(int index) {
+		return open().getInt(index * slotSize + FREQUENCY);
+	}
+
+	/**
+	 * Returns the number of probes of the key stored at the given index
+	 *
+	 * @param index is the index of the hash table
+	 * @return the number of probes of the key at the given index
+	 */
+	public int getProbCount(int index) {
+		return open().getInt(index * slotSize + PROB_COUNT);
+	}
+
+	/**
+	 * Returns the hash table type
+	 *
+	 * @return the hash table type
+	 */
+	public int getTableType() {
+		return probeType.getTableType();
+	}
+
+	/**
+	 * Returns the hash table size
+	 *
+	 * @return the hash table size
+	 */
+	public int getTableSize() {
+		return tableSize;
+	}
+
+	/**
+	 * Returns the number of bytes of every key
+	 *
+	 * @return the key width
+	 */
+	public int getKeyWidth() {
+		return keyWidth;
+	}
+
+	/**
+	 * Returns the total inserts in the hash table
+	 *
+	 * @return the total number of inserts in the hash table
+	 */
+	public long getTotalInsert() {
+		return this.totalInsert;
+	}
+
+	/**
+	 * Returns number of duplicates in the hash table
+	 *
+	 * @return number of duplicates in the hash table
+	 */
+	public long getDuplicateCount() {
+		return this.duplicateCount;
+	}
+
+	/**
+	 * Returns the number of total probes of inserted keys in the hash table
+	 *
+	 * @return the number of total probes of the inserted keys in the hash table
+	 */
+	public long getTotalProbs() {
+		return this.totalProbs;
+	}
+
+	/**
+	 * Returns if the hash table is closed
+	 *
+	 * @return if the hash table is closed
+	 */
+	public boolean isClosed() {
+		return hashTable == null;
+	}
+
+	/**
+	 * Frees the memory of the hash table. Any later use of the table throws an
+	 * IllegalStateException.
+	 */
+	@Override
+	public void close() {
+		ByteBuffer table = hashTable;
+		hashTable = null;
+		if (table != null) {
+			free(table);
+		}
+	}
+
+	/**
+	 * Frees a direct buffer right away through sun.misc.Unsafe.invokeCleaner. If
+	 * that is not available the buffer is freed when it is garbage collected.
+	 *
+	 * @param buffer is the direct buffer to be freed
+	 */
+	private static void free(ByteBuffer buffer) {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			invokeCleaner.invoke(theUnsafe.get(null), buffer);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// left to the garbage collector
+		}
+	}
+
+}
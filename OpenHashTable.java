@@ -0,0 +1,108 @@
+/**
+ * OpenHashTable interface is a hash table of objects with open addressing,
+ * counting the frequency of every object and the probes of every insert, as
+ * HashTest simulates and reports them
+ *
+ * @author Sajia Zafreen
+ *
+ * @param <T>
+ */
+public interface OpenHashTable<T> {
+
+	/**
+	 * Inserts an object to the hash table
+	 *
+	 * @param object is the object to hashed in the hash table
+	 */
+	void insert(T object);
+
+	/**
+	 * Inserts an object the given number of times in one probe sequence
+	 *
+	 * @param object is the object to hashed in the hash table
+	 * @param count  is the number of times the object is inserted
+	 */
+	void insert(T object, int count);
+
+	/**
+	 * Inserts every object of the array, in order
+	 *
+	 * @param objects is the objects to be hashed in the hash table
+	 */
+	void insertAll(T[] objects);
+
+	/**
+	 * Inserts every object of the iterable, in order
+	 *
+	 * @param objects is the objects to be hashed in the hash table
+	 */
+	void insertAll(Iterable<? extends T> objects);
+
+	/**
+	 * Returns the hash object equal to the given object
+	 *
+	 * @param object is the object to be searched in the hash table
+	 * @return the hash object holding the object, or null if it is not in the
+	 *         hash table
+	 */
+	HashObject<T> search(T object);
+
+	/**
+	 * Returns the hasher of the objects
+	 *
+	 * @return the hasher
+	 */
+	Hasher getHasher();
+
+	/**
+	 * Returns the hash table type, the number HashTest selects it by
+	 *
+	 * @return the hash table type
+	 */
+	int getTableType();
+
+	/**
+	 * Returns the name of the type of hashing
+	 *
+	 * @return the name of the type of hashing
+	 */
+	String getTableName();
+
+	/**
+	 * Returns the hash table size
+	 *
+	 * @return the hash table size
+	 */
+	int getTableSize();
+
+	/**
+	 * Returns the hash object at the given index
+	 *
+	 * @param index is the index of the hash table
+	 * @return the hash object at the given index, or null if there is none
+	 */
+	HashObject<T> getTableContent(int index);
+
+	/**
+	 * Returns the total inserts in the hash table
+	 *
+	 * @return the total number of inserts in the hash table
+	 */
+	long getTotalInsert();
+
+	/**
+	 * Returns number of duplicates in the hash table
+	 *
+	 * @return number of duplicates in the hash table
+	 */
+	long getDuplicateCount();
+
+	/**
+	 * Returns the number of total probes of inserted objects in the hash table
+	 *
+	 * @return the number of total probes of the inserted objects in the hash
+	 *         table
+	 */
+	long getTotalProbs();
+
+}
@@ -0,0 +1,417 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelRebuild class places every live hash object of a table into a new
+ * table of another size or probe type on a fork-join pool, for
+ * HashTable.rebuild. The new table is cut into regions of consecutive indexes,
+ * and the objects are grouped by the region of their primary hash with a
+ * counting sort over chunks of the old table. Each region is then filled by its
+ * own task, which only writes indexes of its region, so no two tasks write the
+ * same index. An object whose probe sequence leaves its region is placed after
+ * the tasks, on one thread.
+ * <p>
+ * With linear and Robin Hood probing a region lays its objects out in order of
+ * primary hash, and the objects left over at its end go in front of the next
+ * region, moving its first cluster on. That order is the layout of Robin Hood
+ * hashing, and with no gap between an object and its primary hash it is also a
+ * valid linear layout. The number of probes of every object is then computed
+ * from where it ended up, so the probe statistics are exact for the new table.
+ *
+ * @author Sajia Zafreen
+ *
+ * @param <T>
+ */
+final class ParallelRebuild<T> {
+
+	private static final int MIN_REGION = 4096; // indexes of the smallest region
+	private static final int REGIONS_PER_THREAD = 16; // so a slow region does not hold up the rest
+
+	private final HashObject<T>[] source;
+	private final int tableSize;
+	private final ProbeType probeType;
+	private final boolean ordered; // linear or Robin Hood, laid out in order of primary hash
+	private final ForkJoinPool pool;
+	private final int regionCount;
+	private final int chunkCount;
+
+	private HashObject<T>[] table;
+	private int[] probes; // probes of each index of the new table, for double and quadratic probing
+	private HashObject<T>[] grouped; // live objects grouped by region, in old table order
+	private int[] homes; // primary hash of each grouped object in the new table
+	private int[] regionBase; // first grouped object of each region, and the number of objects last
+	private final ProbeHistogram probeLengths = new ProbeHistogram();
+
+	/**
+	 * Constructor
+	 *
+	 * @param source    is the old table, null where there is no live object
+	 * @param tableSize is the size of the new table
+	 * @param probeType is the probe type of the new table
+	 * @param pool      is the pool the tasks run on
+	 */
+	ParallelRebuild(HashObject<T>[] source, int tableSize, ProbeType probeType, ForkJoinPool pool) {
+		this.source = source;
+		this.tableSize = tableSize;
+		this.probeType = probeType;
+		this.ordered = probeType == ProbeType.LINEAR || probeType == ProbeType.ROBIN_HOOD;
+		this.pool = pool;
+		int tasks = pool.getParallelism() * REGIONS_PER_THREAD;
+		this.regionCount = Math.max(1, Math.min(tasks, tableSize / MIN_REGION));
+		this.chunkCount = Math.max(1, Math.min(tasks, source.length / MIN_REGION));
+	}
+
+	/**
+	 * Returns the hash value of modulus operation on the hash key
+	 *
+	 * @param key       is the hash key
+	 * @param tableSize is the size of the hash table
+	 * @return the hash value from modulus operation on hash key
+	 */
+	private static int modOperation(int key, int tableSize) {
+		int hashValue = key % tableSize;
+		if (hashValue < 0) {
+			hashValue += tableSize;
+		}
+		return hashValue;
+	}
+
+	/**
+	 * Returns the first index of a region of the new table, or the table size
+	 * for the region after the last one
+	 *
+	 * @param region is the region
+	 * @return the first index of the region
+	 */
+	private int regionStart(int region) {
+		return (int) (((long) region * tableSize + regionCount - 1) / regionCount);
+	}
+
+	/**
+	 * Returns the region of an index of the new table
+	 *
+	 * @param index is the index
+	 * @return the region holding the index
+	 */
+	private int regionOf(int index) {
+		return (int) ((long) index * regionCount / tableSize);
+	}
+
+	/**
+	 * Returns the first index of a chunk of the old table, or its size for the
+	 * chunk after the last one
+	 *
+	 * @param chunk is the chunk
+	 * @return the first index of the chunk
+	 */
+	private int chunkStart(int chunk) {
+		return (int) ((long) chunk * source.length / chunkCount);
+	}
+
+	/**
+	 * Places every live object in the new table and sets its number of probes
+	 *
+	 * @return the new table
+	 * @throws IllegalStateException if an object has no free index on its probe
+	 *                               sequence, or a task failed
+	 */
+	HashObject<T>[] run() {
+		table = HashTable.newTable(tableSize);
+		if (!ordered) {
+			probes = new int[tableSize];
+		}
+		int[] sourceHomes = new int[source.length];
+		groupByRegion(sourceHomes, countRegions(sourceHomes));
+		List<List<HashObject<T>>> leftOver = invokeAll(regionTasks());
+		if (ordered) {
+			moveOn(leftOver);
+		} else {
+			for (List<HashObject<T>> objects : leftOver) {
+				for (HashObject<T> hashObject : objects) {
+					placeInRange(hashObject, modOperation(hashObject.getKey(), tableSize), 0, tableSize, true);
+				}
+			}
+		}
+		for (ProbeHistogram lengths : invokeAll(probeTasks())) {
+			probeLengths.merge(lengths);
+		}
+		return table;
+	}
+
+	/**
+	 * Counts the live objects of each chunk of the old table in each region, and
+	 * turns the counts into the first position of each chunk and region in the
+	 * grouped objects. The primary hash of every live object is kept in
+	 * sourceHomes, so the objects are only read once here.
+	 *
+	 * @param sourceHomes is the primary hash in the new table of the object at
+	 *                    each index of the old table
+	 * @return the first position of the objects of each chunk and region
+	 */
+	private int[][] countRegions(int[] sourceHomes) {
+		int[][] counts = new int[chunkCount][regionCount];
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (int chunk = 0; chunk < chunkCount; chunk++) {
+			final int[] count = counts[chunk];
+			final int from = chunkStart(chunk);
+			final int to = chunkStart(chunk + 1);
+			tasks.add(() -> {
+				for (int i = from; i < to; i++) {
+					if (source[i] != null) {
+						int home = modOperation(source[i].getKey(), tableSize);
+						sourceHomes[i] = home;
+						count[regionOf(home)]++;
+					}
+				}
+				return null;
+			});
+		}
+		invokeAll(tasks);
+		regionBase = new int[regionCount + 1];
+		int position = 0;
+		for (int region = 0; region < regionCount; region++) {
+			regionBase[region] = position;
+			for (int chunk = 0; chunk < chunkCount; chunk++) {
+				int count = counts[chunk][region];
+				counts[chunk][region] = position;
+				position += count;
+			}
+		}
+		regionBase[regionCount] = position;
+		return counts;
+	}
+
+	/**
+	 * Copies the live objects to their positions in the grouped objects, each
+	 * chunk on its own task
+	 *
+	 * @param sourceHomes is the primary hash in the new table of the object at
+	 *                    each index of the old table
+	 * @param offsets     is the first position of the objects of each chunk and
+	 *                    region
+	 */
+	private void groupByRegion(int[] sourceHomes, int[][] offsets) {
+		grouped = HashTable.newTable(regionBase[regionCount]);
+		homes = new int[grouped.length];
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (int chunk = 0; chunk < chunkCount; chunk++) {
+			final int[] next = offsets[chunk];
+			final int from = chunkStart(chunk);
+			final int to = chunkStart(chunk + 1);
+			tasks.add(() -> {
+				for (int i = from; i < to; i++) {
+					if (source[i] != null) {
+						int home = sourceHomes[i];
+						int position = next[regionOf(home)]++;
+						grouped[position] = source[i];
+						homes[position] = home;
+					}
+				}
+				return null;
+			});
+		}
+		invokeAll(tasks);
+	}
+
+	/**
+	 * Returns a task for each region, which places the objects of the region, in
+	 * order of primary hash for linear and Robin Hood probing, and returns the
+	 * objects it could not place inside the region
+	 *
+	 * @return the tasks
+	 */
+	private List<Callable<List<HashObject<T>>>> regionTasks() {
+		List<Callable<List<HashObject<T>>>> tasks = new ArrayList<Callable<List<HashObject<T>>>>();
+		for (int region = 0; region < regionCount; region++) {
+			final int from = regionBase[region];
+			final int to = regionBase[region + 1];
+			final int start = regionStart(region);
+			final int end = regionStart(region + 1);
+			tasks.add(() -> {
+				List<HashObject<T>> leftOver = new ArrayList<HashObject<T>>();
+				if (!ordered) {
+					for (int position = from; position < to; position++) {
+						if (!placeInRange(grouped[position], homes[position], start, end, false)) {
+							leftOver.add(grouped[position]);
+						}
+					}
+					return leftOver;
+				}
+				// counting sort on the primary hash, equal ones keeping their order
+				int[] next = new int[end - start + 1];
+				for (int position = from; position < to; position++) {
+					next[homes[position] - start + 1]++;
+				}
+				for (int i = 1; i < next.length; i++) {
+					next[i] += next[i - 1];
+				}
+				int[] order = new int[to - from];
+				for (int position = from; position < to; position++) {
+					order[next[homes[position] - start]++] = position;
+				}
+				int cursor = start;
+				for (int position : order) {
+					int j = Math.max(cursor, homes[position]);
+					if (j < end) {
+						table[j] = grouped[position];
+						cursor = j + 1;
+					} else {
+						leftOver.add(grouped[position]);
+					}
+				}
+				return leftOver;
+			});
+		}
+		return tasks;
+	}
+
+	/**
+	 * Places an object at the first free index of its probe sequence, while the
+	 * sequence stays in the given range, for double and quadratic probing
+	 *
+	 * @param hashObject is the hash object to be placed
+	 * @param home       is its primary hash in the new table
+	 * @param start      is the first index of the range
+	 * @param end        is one past the last index of the range
+	 * @param required   is if the object has to be placed
+	 * @return if the object was placed
+	 * @throws IllegalStateException if a required object has no free index on
+	 *                               its probe sequence
+	 */
+	private boolean placeInRange(HashObject<T> hashObject, int home, int start, int end, boolean required) {
+		int key = hashObject.getKey();
+		int step = probeType.firstStep(key, tableSize);
+		int j = home;
+		for (int localCount = 1; localCount <= tableSize && j >= start && j < end; localCount++) {
+			if (table[j] == null) {
+				table[j] = hashObject;
+				probes[j] = localCount;
+				return true;
+			}
+			j += step;
+			if (j >= tableSize) {
+				j -= tableSize;
+			}
+			step = probeType.nextStep(step, tableSize);
+		}
+		if (required) {
+			throw new IllegalStateException("No free index on the probe sequence of " + hashObject.getObject()
+					+ " in a table of " + tableSize);
+		}
+		return false;
+	}
+
+	/**
+	 * Places the objects left over at the end of each region in front of the
+	 * next region, in order of primary hash, moving the first cluster of that
+	 * region on by as many indexes. The objects left over at the end of the table
+	 * go to its start.
+	 *
+	 * @param leftOver is the objects left over by each region
+	 */
+	private void moveOn(List<List<HashObject<T>>> leftOver) {
+		ArrayDeque<HashObject<T>> carried = new ArrayDeque<HashObject<T>>();
+		for (int region = 0; region < regionCount; region++) {
+			moveOn(carried, regionStart(region), regionStart(region + 1));
+			carried.addAll(leftOver.get(region)); // after every object placed in the region
+		}
+		for (int region = 0; !carried.isEmpty(); region = (region + 1) % regionCount) {
+			moveOn(carried, regionStart(region), regionStart(region + 1));
+		}
+	}
+
+	/**
+	 * Places carried objects from the start of a range, each object found there
+	 * joining the end of the carried ones, until an empty index or the end of the
+	 * range
+	 *
+	 * @param carried is the objects to be placed, in order
+	 * @param start   is the first index of the range
+	 * @param end     is one past the last index of the range
+	 */
+	private void moveOn(ArrayDeque<HashObject<T>> carried, int start, int end) {
+		for (int j = start; j < end && !carried.isEmpty(); j++) {
+			if (table[j] != null) {
+				carried.addLast(table[j]);
+			}
+			table[j] = carried.removeFirst();
+		}
+	}
+
+	/**
+	 * Returns a task for each region, which sets the number of probes of every
+	 * object of the region and returns their histogram
+	 *
+	 * @return the tasks
+	 */
+	private List<Callable<ProbeHistogram>> probeTasks() {
+		List<Callable<ProbeHistogram>> tasks = new ArrayList<Callable<ProbeHistogram>>();
+		for (int region = 0; region < regionCount; region++) {
+			final int start = regionStart(region);
+			final int end = regionStart(region + 1);
+			tasks.add(() -> {
+				ProbeHistogram lengths = new ProbeHistogram();
+				for (int j = start; j < end; j++) {
+					HashObject<T> hashObject = table[j];
+					if (hashObject == null) {
+						continue;
+					}
+					int probeCount;
+					if (ordered) {
+						int distance = j - modOperation(hashObject.getKey(), tableSize);
+						probeCount = (distance < 0 ? distance + tableSize : distance) + 1;
+					} else {
+						probeCount = probes[j];
+					}
+					hashObject.setProbCount(probeCount);
+					lengths.record(probeCount);
+				}
+				return lengths;
+			});
+		}
+		return tasks;
+	}
+
+	/**
+	 * Runs the tasks on the pool and returns their results in order
+	 *
+	 * @param tasks is the tasks
+	 * @return the results of the tasks
+	 * @throws IllegalStateException if a task failed or the thread was
+	 *                               interrupted
+	 */
+	private <V> List<V> invokeAll(List<Callable<V>> tasks) {
+		List<V> results = new ArrayList<V>(tasks.size());
+		try {
+			for (Future<V> future : pool.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Rebuild interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IllegalStateException) {
+				throw (IllegalStateException) cause;
+			}
+			throw new IllegalStateException("Rebuild failed", cause);
+		}
+		return results;
+	}
+
+	/**
+	 * Returns the histogram of the numbers of probes of the objects in the new
+	 * table, after run
+	 *
+	 * @return the histogram of the numbers of probes
+	 */
+	ProbeHistogram getProbeLengths() {
+		return probeLengths;
+	}
+
+}
@@ -0,0 +1,181 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ProbeHistogram class counts how often each probe length, or cluster length,
+ * was seen. Lengths below 1024 are counted exactly and longer ones by power of
+ * two, so recording is one atomic increment of a bucket. Nothing takes a lock,
+ * so searches on several threads can record into one histogram while another
+ * thread reads or copies it. A read while lengths are being recorded sees
+ * every length recorded before it started and possibly some recorded during
+ * it.
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public class ProbeHistogram {
+
+	private static final int EXACT = 1024; // lengths counted exactly
+	private static final int EXACT_BITS = 10; // EXACT is 2^10
+
+	// lengths below EXACT, then one bucket for each power of two up to 2^31
+	private final AtomicLongArray counts = new AtomicLongArray(EXACT + 32 - EXACT_BITS);
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0); // only written by a longer length
+
+	/**
+	 * Records one length
+	 *
+	 * @param length is the probe or cluster length
+	 */
+	public void record(int length) {
+		counts.incrementAndGet(bucket(length));
+		sum.add(length);
+		max.accumulate(length);
+	}
+
+	/**
+	 * Returns the bucket of a length
+	 *
+	 * @param length is the length
+	 * @return the index of its bucket
+	 */
+	private static int bucket(int length) {
+		if (length < EXACT) {
+			return Math.max(length, 0);
+		}
+		return EXACT + (31 - Integer.numberOfLeadingZeros(length)) - EXACT_BITS;
+	}
+
+	/**
+	 * Returns the largest length of a bucket
+	 *
+	 * @param bucket is the index of the bucket
+	 * @param max    is the longest recorded length
+	 * @return the largest length counted in it
+	 */
+	private static int upperLength(int bucket, int max) {
+		if (bucket < EXACT) {
+			return bucket;
+		}
+		long upper = (1L << (bucket - EXACT + EXACT_BITS + 1)) - 1;
+		return (int) Math.min(upper, max);
+	}
+
+	/**
+	 * Returns the length which the given ratio of the recorded lengths are at or
+	 * below, exact below 1024 and rounded up to the next power of two above
+	 *
+	 * @param ratio is the ratio between 0 and 1, 0.5 for the median
+	 * @return the length at the ratio, 0 if nothing is recorded
+	 */
+	public int percentile(double ratio) {
+		long[] lengths = new long[counts.length()]; // one pass over the buckets for the count and the search
+		long count = 0;
+		for (int i = 0; i < lengths.length; i++) {
+			lengths[i] = counts.get(i);
+			count += lengths[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+		int longest = getMax();
+		long target = Math.max(1, (long) Math.ceil(ratio * count));
+		long seen = 0;
+		for (int i = 0; i < lengths.length; i++) {
+			seen += lengths[i];
+			if (seen >= target) {
+				return upperLength(i, longest);
+			}
+		}
+		return longest;
+	}
+
+	/**
+	 * Returns the number of recorded lengths
+	 *
+	 * @return the number of recorded lengths
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the longest recorded length
+	 *
+	 * @return the longest length
+	 */
+	public int getMax() {
+		return (int) max.get();
+	}
+
+	/**
+	 * Returns the average recorded length
+	 *
+	 * @return the average length, 0 if nothing is recorded
+	 */
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : (double) getSum() / count;
+	}
+
+	/**
+	 * Returns the sum of the recorded lengths
+	 *
+	 * @return the sum of the lengths
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * Adds every length recorded by another histogram
+	 *
+	 * @param other is the other histogram
+	 */
+	public void merge(ProbeHistogram other) {
+		for (int i = 0; i < counts.length(); i++) {
+			long count = other.counts.get(i);
+			if (count != 0) {
+				counts.addAndGet(i, count);
+			}
+		}
+		sum.add(other.getSum());
+		max.accumulate(other.getMax());
+	}
+
+	/**
+	 * Returns a copy of the histogram
+	 *
+	 * @return the copy
+	 */
+	public ProbeHistogram copy() {
+		ProbeHistogram copy = new ProbeHistogram();
+		copy.merge(this);
+		return copy;
+	}
+
+	/**
+	 * Clears every recorded length. Lengths recorded during the reset may be
+	 * partly kept.
+	 */
+	public void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+		sum.reset();
+		max.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "count " + getCount() + ", mean " + getMean() + ", p50 " + percentile(0.5) + ", p99 "
+				+ percentile(0.99) + ", max " + getMax();
+	}
+
+}
@@ -0,0 +1,121 @@
+/**
+ * ProbeType enum is the probing strategy of a hash table. Every probe sequence
+ * starts at the primary hash and moves by a step, which may change after each
+ * probe.
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public enum ProbeType {
+
+	/**
+	 * Moves one index at a time
+	 */
+	LINEAR(1, "Linear"),
+
+	/**
+	 * Moves by the secondary hash of the key
+	 */
+	DOUBLE(2, "Double") {
+		@Override
+		public int firstStep(int key, int tableSize) {
+			int hashValue = key % (tableSize - 2);
+			if (hashValue < 0) {
+				hashValue += tableSize - 2;
+			}
+			return 1 + hashValue;
+		}
+	},
+
+	/**
+	 * Moves by 1, 2, 3, ... indexes, so probe i is at primaryHash + i(i+1)/2. On
+	 * a prime table size it visits at least half of the indexes.
+	 */
+	QUADRATIC(3, "Quadratic") {
+		@Override
+		public int nextStep(int step, int tableSize) {
+			step++;
+			return step >= tableSize ? step - tableSize : step;
+		}
+	},
+
+	/**
+	 * Moves one index at a time, but a new key takes the index of any key closer
+	 * to its primary hash, which then moves on. Lookups stop at a key closer to
+	 * its primary hash than the searched one, and deletes shift the following
+	 * keys back instead of leaving a DELETED index.
+	 */
+	ROBIN_HOOD(4, "RobinHood");
+
+	private final int tableType;
+	private final String tableName;
+
+	/**
+	 * Constructor
+	 *
+	 * @param tableType is the number of the probe type in HashTest
+	 * @param tableName is the name printed for the probe type
+	 */
+	ProbeType(int tableType, String tableName) {
+		this.tableType = tableType;
+		this.tableName = tableName;
+	}
+
+	/**
+	 * Returns the step from the primary hash to the second index of the probe
+	 * sequence
+	 *
+	 * @param key       is the hash key of the object
+	 * @param tableSize is the size of the probed table
+	 * @return the first step
+	 */
+	public int firstStep(int key, int tableSize) {
+		return 1;
+	}
+
+	/**
+	 * Returns the step after the given one
+	 *
+	 * @param step      is the current step
+	 * @param tableSize is the size of the probed table
+	 * @return the next step
+	 */
+	public int nextStep(int step, int tableSize) {
+		return step;
+	}
+
+	/**
+	 * Returns the number of the probe type, 1 for linear, 2 for double, 3 for
+	 * quadratic and 4 for Robin Hood
+	 *
+	 * @return the number of the probe type
+	 */
+	public int getTableType() {
+		return tableType;
+	}
+
+	/**
+	 * Returns the name of the probe type
+	 *
+	 * @return the name of the probe type
+	 */
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * Returns the probe type of the given number
+	 *
+	 * @param tableType is the number of the probe type
+	 * @return the probe type
+	 */
+	public static ProbeType of(int tableType) {
+		for (ProbeType probeType : values()) {
+			if (probeType.tableType == tableType) {
+				return probeType;
+			}
+		}
+		throw new IllegalArgumentException("Unknown table type " + tableType);
+	}
+
+}
@@ -0,0 +1,501 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ShardedHashTable class counts objects in a number of independent HashTable
+ * shards, each owned by one worker thread. An object goes to the shard chosen
+ * by the high bits of its mixed hash key, through a bounded queue with one
+ * producer, the thread calling insert, and one consumer, the worker of the
+ * shard. No two threads ever touch the same shard, so the shards need no lock
+ * or atomic update, and the ingest scales with the number of cores.
+ * <p>
+ * An object is always in the same shard, so the frequency of an object in its
+ * shard is its frequency in the whole table and the statistics of the shards
+ * add up. After finish the shards can be searched directly or merged into one
+ * HashTable. close stops the workers of a table which is abandoned before
+ * finish, and may be called after finish.
+ *
+ * @author Sajia Zafreen
+ *
+ * @param <T>
+ */
+public class ShardedHashTable<T> implements AutoCloseable {
+
+	private static final TwinPrimeGenerator PRIME_GENERATOR = new TwinPrimeGenerator(2);
+	private static final int QUEUE_SIZE = 1 << 14; // objects waiting for each shard
+	private static final int PUBLISH_SIZE = 64; // objects written before the worker sees them
+	private static final int SPINS = 100; // busy waits before a wait parks
+
+	private final HashTable<T>[] shards;
+	private final ShardQueue[] queues;
+	private final Thread[] workers;
+	private final Hasher hasher;
+	private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+	private volatile boolean finished; // set once every object is published
+	private volatile boolean closed; // set once the workers are told to stop
+	private volatile boolean dropped; // set if a worker stopped before inserting every object
+	private long routedCount;
+
+	/**
+	 * Constructor of fixed size shards with the Java hash codes
+	 *
+	 * @param shardCount is the number of shards and worker threads
+	 * @param tableSize  is the table size of all of the shards together
+	 * @param tableType  is the type of hashing of the shards
+	 */
+	public ShardedHashTable(int shardCount, int tableSize, int tableType) {
+		this(shardCount, tableSize, tableType, 0, HashFunction.JAVA);
+	}
+
+	/**
+	 * Constructor. The worker threads are started right away.
+	 *
+	 * @param shardCount    is the number of shards and worker threads
+	 * @param tableSize     is the table size of all of the shards together,
+	 *                      each shard taking the twin prime at or above its part
+	 * @param tableType     is the type of hashing of the shards
+	 * @param maxLoadFactor is the load factor above which a shard grows, or 0 for
+	 *                      a fixed size
+	 * @param hasher        is the hasher of the objects
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public ShardedHashTable(int shardCount, int tableSize, int tableType, double maxLoadFactor, Hasher hasher) {
+		if (shardCount < 1 || tableSize < shardCount) {
+			throw new IllegalArgumentException("Shard count should be between 1 and the table size");
+		}
+		int from = Math.max(5, (int) Math.ceil((double) tableSize / shardCount));
+		int shardSize = PRIME_GENERATOR.getTwinPrime(from, (int) Math.min(Integer.MAX_VALUE / 2, 2L * from));
+		this.hasher = hasher;
+		this.shards = (HashTable<T>[]) new HashTable[shardCount];
+		this.queues = new ShardQueue[shardCount];
+		this.workers = new Thread[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			shards[i] = new HashTable<T>(shardSize, tableType, maxLoadFactor, hasher);
+			queues[i] = new ShardQueue(QUEUE_SIZE);
+			final int shard = i;
+			workers[i] = new Thread(() -> work(shard), "HashTable-shard-" + i);
+			workers[i].setDaemon(true);
+			workers[i].start();
+		}
+	}
+
+	/**
+	 * Returns the shard of a hash key from the high bits of its mixed value, so
+	 * the low bits the shard probes with are not the ones that chose it
+	 *
+	 * @param key is the hash key
+	 * @return the shard
+	 */
+	private int shardOf(int key) {
+		long mixed = HashFunction.fmix32(key) & 0xffffffffL;
+		return (int) ((mixed * shards.length) >>> 32);
+	}
+
+	/**
+	 * Sends an object to its shard. Only one thread may insert, and only until
+	 * finish. Waits while the queue of the shard is full.
+	 *
+	 * @param object is the object to be hashed in the hash table
+	 * @throws IllegalStateException if the table is finished or closed, or a
+	 *                               worker failed
+	 */
+	public void insert(T object) {
+		if (finished || closed) {
+			throw new IllegalStateException("Sharded table is " + (closed ? "closed" : "finished"));
+		}
+		ShardQueue queue = queues[shardOf(hasher.hash(object))];
+		for (int spins = 0; !queue.offer(object); spins++) {
+			checkFailure();
+			if (closed) {
+				throw new IllegalStateException("Sharded table is closed");
+			}
+			idle(spins);
+		}
+		routedCount++;
+	}
+
+	/**
+	 * Inserts every object of the array, in order
+	 *
+	 * @param objects is the objects to be hashed in the hash table
+	 */
+	public void insertAll(T[] objects) {
+		for (T object : objects) {
+			insert(object);
+		}
+	}
+
+	/**
+	 * Publishes every object sent, waits for the workers to insert them all and
+	 * completes any rehash of the shards. The shards can then be read.
+	 *
+	 * @throws InterruptedException  if the thread is interrupted while waiting
+	 * @throws IllegalStateException if the table was closed before finish or a
+	 *                               worker failed
+	 */
+	public void finish() throws InterruptedException {
+		if (!finished) {
+			if (closed) {
+				throw new IllegalStateException("Sharded table is closed");
+			}
+			for (ShardQueue queue : queues) {
+				queue.publish();
+			}
+			finished = true;
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		checkFailure();
+	}
+
+	/**
+	 * Stops the workers and waits for them to end. The objects of a table which
+	 * is not finished are dropped and its shards cannot be read, while a
+	 * finished table stays readable. Interrupting the wait keeps the interrupt
+	 * status of the thread.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		for (Thread worker : workers) {
+			LockSupport.unpark(worker);
+		}
+		boolean interrupted = false;
+		for (Thread worker : workers) {
+			while (worker.isAlive()) {
+				try {
+					worker.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Inserts the objects of one queue into its shard until the table is
+	 * finished and the queue is empty, or the table is closed
+	 *
+	 * @param shard is the shard of the worker
+	 */
+	@SuppressWarnings("unchecked")
+	private void work(int shard) {
+		ShardQueue queue = queues[shard];
+		HashTable<T> hashTable = shards[shard];
+		try {
+			int spins = 0;
+			while (true) {
+				if (closed) {
+					dropped = true; // the objects left are not inserted
+					return;
+				}
+				boolean done = finished; // read before the queue, so nothing is published after it
+				long tail = queue.published();
+				long head = queue.head;
+				if (head == tail) {
+					if (done) {
+						break;
+					}
+					idle(spins++);
+					continue;
+				}
+				spins = 0;
+				for (; head < tail; head++) {
+					hashTable.insert((T) queue.take(head));
+				}
+				queue.release(head);
+			}
+			hashTable.completeRehash();
+		} catch (RuntimeException | Error e) {
+			failure.compareAndSet(null, e);
+		}
+	}
+
+	/**
+	 * Spins a little and then parks for a short time
+	 *
+	 * @param spins is the number of waits so far
+	 */
+	private static void idle(int spins) {
+		if (spins < SPINS) {
+			Thread.onSpinWait();
+		} else {
+			LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+		}
+	}
+
+	/**
+	 * Throws the failure of a worker, if any
+	 *
+	 * @throws IllegalStateException if a worker failed
+	 */
+	private void checkFailure() {
+		Throwable cause = failure.get();
+		if (cause != null) {
+			throw new IllegalStateException("Shard worker failed", cause);
+		}
+	}
+
+	/**
+	 * Throws if the workers may still be inserting
+	 *
+	 * @throws IllegalStateException if the table is not finished, or was closed
+	 *                               before its workers were done
+	 */
+	private void checkFinished() {
+		if (dropped) {
+			throw new IllegalStateException("Sharded table was closed before finish");
+		}
+		if (!finished) {
+			throw new IllegalStateException("Sharded table is not finished");
+		}
+		for (Thread worker : workers) {
+			if (worker.isAlive()) {
+				throw new IllegalStateException("Sharded table is not finished");
+			}
+		}
+	}
+
+	/**
+	 * Returns the hash object equal to the given object, after finish
+	 *
+	 * @param object is the object to be searched in the hash table
+	 * @return the hash object, or null if the object is not in the hash table
+	 */
+	public HashObject<T> search(T object) {
+		checkFinished();
+		return shards[shardOf(hasher.hash(object))].search(object);
+	}
+
+	/**
+	 * Returns the frequency of the object, after finish
+	 *
+	 * @param object is the object to be searched in the hash table
+	 * @return the frequency of the object, or -1 if it is not in the hash table
+	 */
+	public int frequencyOf(T object) {
+		checkFinished();
+		return shards[shardOf(hasher.hash(object))].frequencyOf(object);
+	}
+
+	/**
+	 * Returns one hash table of every object of the shards with its frequency,
+	 * after finish. The probes of the merged table are its own, while
+	 * getTotalProbs keeps the probes of the shards.
+	 *
+	 * @param tableSize     is the table size of the merged hash table
+	 * @param maxLoadFactor is the load factor above which the merged table
+	 *                      grows, or 0 for a fixed size
+	 * @return the merged hash table
+	 */
+	@SuppressWarnings("unchecked")
+	public HashTable<T> merge(int tableSize, double maxLoadFactor) {
+		checkFinished();
+		HashTable<T> merged = new HashTable<T>(tableSize, shards[0].getTableType(), maxLoadFactor, hasher);
+		for (HashTable<T> shard : shards) {
+			for (int i = 0; i < shard.getTableSize(); i++) {
+				HashObject<T> hashObject = shard.getTableContent(i);
+				if (hashObject != null && !shard.isDeleted(i)) {
+					merged.insert((T) hashObject.getObject(), hashObject.getFrequency() + 1);
+				}
+			}
+		}
+		return merged;
+	}
+
+	/**
+	 * Returns the number of shards
+	 *
+	 * @return the number of shards
+	 */
+	public int getShardCount() {
+		return shards.length;
+	}
+
+	/**
+	 * Returns one shard, after finish
+	 *
+	 * @param shard is the number of the shard
+	 * @return the hash table of the shard
+	 */
+	public HashTable<T> getShard(int shard) {
+		checkFinished();
+		return shards[shard];
+	}
+
+	/**
+	 * Returns the number of objects sent to the shards
+	 *
+	 * @return the number of objects sent
+	 */
+	public long getRoutedCount() {
+		return routedCount;
+	}
+
+	/**
+	 * Returns the table size of all of the shards together, after finish
+	 *
+	 * @return the table size
+	 */
+	public long getTableSize() {
+		checkFinished();
+		long tableSize = 0;
+		for (HashTable<T> shard : shards) {
+			tableSize += shard.getTableSize();
+		}
+		return tableSize;
+	}
+
+	/**
+	 * Returns the total inserts in all of the shards, after finish
+	 *
+	 * @return the total number of inserts
+	 */
+	public long getTotalInsert() {
+		checkFinished();
+		long totalInsert = 0;
+		for (HashTable<T> shard : shards) {
+			totalInsert += shard.getTotalInsert();
+		}
+		return totalInsert;
+	}
+
+	/**
+	 * Returns number of duplicates in all of the shards, after finish
+	 *
+	 * @return number of duplicates
+	 */
+	public long getDuplicateCount() {
+		checkFinished();
+		long duplicateCount = 0;
+		for (HashTable<T> shard : shards) {
+			duplicateCount += shard.getDuplicateCount();
+		}
+		return duplicateCount;
+	}
+
+	/**
+	 * Returns the number of total probes of inserted objects in all of the
+	 * shards, after finish
+	 *
+	 * @return the number of total probes
+	 */
+	public long getTotalProbs() {
+		checkFinished();
+		long totalProbs = 0;
+		for (HashTable<T> shard : shards) {
+			totalProbs += shard.getTotalProbs();
+		}
+		return totalProbs;
+	}
+
+	/**
+	 * ShardQueue class is a bounded ring of objects with one producer and one
+	 * consumer. The producer publishes its writes every PUBLISH_SIZE objects with
+	 * one release store, and the consumer frees the slots it read the same way.
+	 */
+	private static final class ShardQueue {
+
+		private static final VarHandle HEAD;
+		private static final VarHandle TAIL;
+
+		static {
+			try {
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
+				HEAD = lookup.findVarHandle(ShardQueue.class, "head", long.class);
+				TAIL = lookup.findVarHandle(ShardQueue.class, "tail", long.class);
+			} catch (ReflectiveOperationException e) {
+				throw new ExceptionInInitializerError(e);
+			}
+		}
+
+		private final Object[] ring;
+		private final int mask;
+		private long head; // next slot the consumer reads, written by the consumer
+		private long tail; // slots published to the consumer, written by the producer
+		private long written; // slots written by the producer, producer only
+		private long freeUntil; // head seen by the producer plus the ring size, producer only
+
+		/**
+		 * Constructor
+		 *
+		 * @param size is the number of slots, a power of two
+		 */
+		ShardQueue(int size) {
+			this.ring = new Object[size];
+			this.mask = size - 1;
+			this.freeUntil = size;
+		}
+
+		/**
+		 * Writes an object to the ring, publishing it with the objects before it
+		 * every PUBLISH_SIZE objects. Producer only.
+		 *
+		 * @param object is the object
+		 * @return if the object was written, false if the ring is full
+		 */
+		boolean offer(Object object) {
+			if (written == freeUntil) {
+				freeUntil = (long) HEAD.getAcquire(this) + ring.length;
+				if (written == freeUntil) {
+					publish(); // the consumer has to see every slot to free any
+					return false;
+				}
+			}
+			ring[(int) written & mask] = object;
+			written++;
+			if ((written & (PUBLISH_SIZE - 1)) == 0) {
+				publish();
+			}
+			return true;
+		}
+
+		/**
+		 * Publishes every object written. Producer only.
+		 */
+		void publish() {
+			TAIL.setRelease(this, written);
+		}
+
+		/**
+		 * Returns the number of slots published. Consumer only.
+		 *
+		 * @return the published slots
+		 */
+		long published() {
+			return (long) TAIL.getAcquire(this);
+		}
+
+		/**
+		 * Returns the object of a published slot and clears the slot. Consumer
+		 * only.
+		 *
+		 * @param slot is the slot
+		 * @return the object
+		 */
+		Object take(long slot) {
+			int index = (int) slot & mask;
+			Object object = ring[index];
+			ring[index] = null;
+			return object;
+		}
+
+		/**
+		 * Frees the slots read up to the given one. Consumer only.
+		 *
+		 * @param slot is the next slot to read
+		 */
+		void release(long slot) {
+			HEAD.setRelease(this, slot);
+		}
+
+	}
+
+}
@@ -0,0 +1,403 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * StringHashTable class is a hash table specialized for string keys. The bytes
+ * of every key are copied once into one growing byte array, the arena, and each
+ * index only keeps the offset and length of its key there with the cached hash
+ * key, frequency and number of probes, in parallel arrays like IntHashTable. An
+ * insert from a byte slice, such as the current word of a WordListReader, or
+ * from a CharSequence never allocates a String or a HashObject. A probe
+ * compares the cached hash key and length first, and the bytes with
+ * Arrays.equals only when both match.
+ * <p>
+ * A key is its bytes in UTF-8, and a CharSequence is encoded to UTF-8 before it
+ * is hashed. The hash key is the Hasher's hash of the bytes, so with
+ * HashFunction.JAVA an ASCII word has the same hash key and probes as a String
+ * in HashTable.
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public class StringHashTable {
+
+	private static final byte NIL = 0;
+	private static final byte OCCUPIED = 2;
+	private static final int MAX_ARENA = Integer.MAX_VALUE - 8; // largest array most JVMs allocate
+
+	private final int[] offsets; // first byte of each key in the arena
+	private final int[] lengths;
+	private final int[] keys; // cached hash key of each key
+	private final int[] frequency;
+	private final int[] probCount;
+	private final byte[] indexCondition; // one byte per slot, NIL until first insert
+	private final ProbeType probeType;
+	private final int tableSize;
+	private final Hasher hasher;
+
+	private byte[] arena;
+	private int arenaSize; // bytes of the arena in use
+	private byte[] encoded = new byte[64]; // UTF-8 bytes of the last CharSequence, grown for longer ones
+
+	private long totalProbs; // for full hashTable for each of the insertion
+	private long totalInsert;
+	private long duplicateCount;
+
+	/**
+	 * Constructor
+	 *
+	 * @param tableSize is the table size of the hash table
+	 * @param tableType is 1 for linear, 2 for double or 3 for quadratic hashing
+	 */
+	public StringHashTable(int tableSize, int tableType) {
+		this(tableSize, tableType, HashFunction.JAVA);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param tableSize is the table size of the hash table
+	 * @param tableType is 1 for linear, 2 for double or 3 for quadratic hashing
+	 * @param hasher    is the hasher of the key bytes
+	 */
+	public StringHashTable(int tableSize, int tableType, Hasher hasher) {
+		this.probeType = ProbeType.of(tableType);
+		if (probeType == ProbeType.ROBIN_HOOD) {
+			throw new IllegalArgumentException("Robin Hood hashing is not supported for string keys");
+		}
+		this.tableSize = tableSize;
+		this.hasher = hasher;
+		this.offsets = new int[tableSize];
+		this.lengths = new int[tableSize];
+		this.keys = new int[tableSize];
+		this.frequency = new int[tableSize];
+		this.probCount = new int[tableSize];
+		this.indexCondition = new byte[tableSize];
+		// about 8 bytes a word before the arena grows
+		this.arena = new byte[(int) Math.min(MAX_ARENA, Math.max(64, 8L * tableSize))];
+	}
+
+	/**
+	 * Returns the hash value of modulus operation on the hash key
+	 *
+	 * @param key       is the hash key
+	 * @param tableSize is the size of the hash table
+	 * @return the hash value from modulus operation on hash key
+	 */
+	private static int modOperation(int key, int tableSize) {
+		int hashValue = key % tableSize;
+		if (hashValue < 0) {
+			hashValue += tableSize;
+		}
+		return hashValue;
+	}
+
+	/**
+	 * Inserts the UTF-8 bytes of the characters to the hash table
+	 *
+	 * @param chars is the key to be hashed in the hash table
+	 */
+	public void insert(CharSequence chars) {
+		int length = encode(chars);
+		insert(encoded, 0, length);
+	}
+
+	/**
+	 * Inserts a key of bytes of an array to the hash table. The bytes are copied
+	 * to the arena only if the key is new, so the array may be reused.
+	 *
+	 * @param bytes  is the array holding the key
+	 * @param offset is the first byte of the key
+	 * @param length is the number of bytes of the key
+	 */
+	public void insert(byte[] bytes, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > bytes.length) {
+			throw new IndexOutOfBoundsException("Key of " + length + " bytes at " + offset);
+		}
+		int key = hasher.hash(bytes, offset, length);
+		int step = probeType.firstStep(key, tableSize);
+		int j = modOperation(key, tableSize);
+		for (int localCount = 1; localCount <= tableSize; localCount++) {
+			if (indexCondition[j] != OCCUPIED) {
+				offsets[j] = append(bytes, offset, length);
+				lengths[j] = length;
+				keys[j] = key;
+				frequency[j] = 0;
+				probCount[j] = localCount;
+				indexCondition[j] = OCCUPIED;
+				totalInsert++;
+				totalProbs = totalProbs + localCount;
+				return;
+			}
+			if (matches(j, key, bytes, offset, length)) {
+				frequency[j]++;
+				duplicateCount++;
+				return;
+			}
+			j += step;
+			if (j >= tableSize) {
+				j -= tableSize;
+			}
+			step = probeType.nextStep(step, tableSize);
+		}
+	}
+
+	/**
+	 * Returns the index of the UTF-8 bytes of the characters
+	 *
+	 * @param chars is the key to be searched in the hash table
+	 * @return the index of the key, or -1 if the key is not in the hash table
+	 */
+	public int search(CharSequence chars) {
+		int length = encode(chars);
+		return search(encoded, 0, length);
+	}
+
+	/**
+	 * Returns the index of a key of bytes of an array
+	 *
+	 * @param bytes  is the array holding the key
+	 * @param offset is the first byte of the key
+	 * @param length is the number of bytes of the key
+	 * @return the index of the key, or -1 if the key is not in the hash table
+	 */
+	public int search(byte[] bytes, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > bytes.length) {
+			throw new IndexOutOfBoundsException("Key of " + length + " bytes at " + offset);
+		}
+		int key = hasher.hash(bytes, offset, length);
+		int step = probeType.firstStep(key, tableSize);
+		int j = modOperation(key, tableSize);
+		for (int localCount = 1; localCount <= tableSize; localCount++) {
+			if (indexCondition[j] != OCCUPIED) {
+				return -1;
+			}
+			if (matches(j, key, bytes, offset, length)) {
+				return j;
+			}
+			j += step;
+			if (j >= tableSize) {
+				j -= tableSize;
+			}
+			step = probeType.nextStep(step, tableSize);
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns if the key of the index equals the bytes of the array
+	 *
+	 * @param index  is the index of the hash table
+	 * @param key    is the hash key of the bytes
+	 * @param bytes  is the array holding the key
+	 * @param offset is the first byte of the key
+	 * @param length is the number of bytes of the key
+	 * @return if the keys are equal
+	 */
+	private boolean matches(int index, int key, byte[] bytes, int offset, int length) {
+		if (keys[index] != key || lengths[index] != length) {
+			return false;
+		}
+		int start = offsets[index];
+		return Arrays.equals(arena, start, start + length, bytes, offset, offset + length);
+	}
+
+	/**
+	 * Copies the bytes of a key to the end of the arena, growing it if needed
+	 *
+	 * @param bytes  is the array holding the key
+	 * @param offset is the first byte of the key
+	 * @param length is the number of bytes of the key
+	 * @return the offset of the key in the arena
+	 */
+	private int append(byte[] bytes, int offset, int length) {
+		if (arenaSize + length > arena.length) {
+			if (arenaSize > MAX_ARENA - length) {
+				throw new IllegalStateException("Arena is full at " + arenaSize + " bytes");
+			}
+			long larger = Math.max(2L * arena.length, (long) arenaSize + length);
+			arena = Arrays.copyOf(arena, (int) Math.min(larger, MAX_ARENA));
+		}
+		System.arraycopy(bytes, offset, arena, arenaSize, length);
+		int start = arenaSize;
+		arenaSize += length;
+		return start;
+	}
+
+	/**
+	 * Encodes the characters to UTF-8 into the encoded buffer. A lone surrogate
+	 * becomes '?', the same as String.getBytes.
+	 *
+	 * @param chars is the characters
+	 * @return the number of bytes encoded
+	 */
+	private int encode(CharSequence chars) {
+		int length = chars.length();
+		if (3 * length > encoded.length) {
+			encoded = new byte[Math.max(2 * encoded.length, 3 * length)];
+		}
+		int size = 0;
+		for (int i = 0; i < length; i++) {
+			char c = chars.charAt(i);
+			if (c < 0x80) {
+				encoded[size++] = (byte) c;
+			} else if (c < 0x800) {
+				encoded[size++] = (byte) (0xc0 | c >> 6);
+				encoded[size++] = (byte) (0x80 | c & 0x3f);
+			} else if (Character.isSurrogate(c)) {
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars.charAt(i + 1))) {
+					int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+					encoded[size++] = (byte) (0xf0 | codePoint >> 18);
+					encoded[size++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+					encoded[size++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+					encoded[size++] = (byte) (0x80 | codePoint & 0x3f);
+				} else {
+					encoded[size++] = '?';
+				}
+			} else {
+				encoded[size++] = (byte) (0xe0 | c >> 12);
+				encoded[size++] = (byte) (0x80 | c >> 6 & 0x3f);
+				encoded[size++] = (byte) (0x80 | c & 0x3f);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Returns if the given index of the hash table holds a key
+	 *
+	 * @param index is the index of the hash table
+	 * @return if the index is occupied
+	 */
+	public boolean isOccupied(int index) {
+		return indexCondition[index] == OCCUPIED;
+	}
+
+	/**
+	 * Returns the key stored at the given index as a String. This allocates, so
+	 * it is meant for dumps and not for the insert path.
+	 *
+	 * @param index is the index of the hash table
+	 * @return the key at the given index
+	 */
+	public String getKey(int index) {
+		return new String(arena, offsets[index], lengths[index], StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the cached hash key of the key stored at the given index
+	 *
+	 * @param index is the index of the hash table
+	 * @return the hash key at the given index
+	 */
+	public int getHashKey(int index) {
+		return keys[index];
+	}
+
+	/**
+	 * Returns the frequency of the key stored at the given index
+	 *
+	 * @param index is the index of the hash table
+	 * @return the frequency of the key at the given index
+	 */
+	public int getFrequency(int index) {
+		return frequency[index];
+	}
+
+	/**
+	 * Returns the number of probes of the key stored at the given index
+	 *
+	 * @param index is the index of the hash table
+	 * @return the number of probes of the key at the given index
+	 */
+	public int getProbCount(int index) {
+		return probCount[index];
+	}
+
+	/**
+	 * Returns the hasher of the key bytes
+	 *
+	 * @return the hasher
+	 */
+	public Hasher getHasher() {
+		return hasher;
+	}
+
+	/**
+	 * Returns the hash table type
+	 *
+	 * @return the hash table type
+	 */
+	public int getTableType() {
+		return probeType.getTableType();
+	}
+
+	/**
+	 * Returns the hash table size
+	 *
+	 * @return the hash table size
+	 */
+	public int getTableSize() {
+		return tableSize;
+	}
+
+	/**
+	 * Returns the number of bytes of the keys in the arena
+	 *
+	 * @return the bytes of the arena in use
+	 */
+	public int getArenaSize() {
+		return arenaSize;
+	}
+
+	/**
+	 * Returns the total inserts in the hash table
+	 *
+	 * @return the total number of inserts in the hash table
+	 */
+	public long getTotalInsert() {
+		return this.totalInsert;
+	}
+
+	/**
+	 * Returns number of duplicates in the hash table
+	 *
+	 * @return number of duplicates in the hash table
+	 */
+	public long getDuplicateCount() {
+		return this.duplicateCount;
+	}
+
+	/**
+	 * Returns the number of total probes of inserted keys in the hash table
+	 *
+	 * @return the number of total probes of the inserted keys in the hash table
+	 */
+	public long getTotalProbs() {
+		return this.totalProbs;
+	}
+
+	/**
+	 * Returns if the hash table is empty or not
+	 *
+	 * @return if the hash table empty
+	 */
+	public boolean isEmpty() {
+		return this.totalInsert == 0;
+	}
+
+	/**
+	 * Returns the content of the given index in the same format as
+	 * HashObject.toString, or null if the index is not occupied
+	 *
+	 * @param index is the index of the hash table
+	 * @return the content of the index
+	 */
+	public String getTableContent(int index) {
+		if (indexCondition[index] != OCCUPIED) {
+			return null;
+		}
+		return getKey(index) + " " + frequency[index] + " " + probCount[index];
+	}
+
+}
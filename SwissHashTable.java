@@ -0,0 +1,257 @@
+import java.util.Arrays;
+
+/**
+ * SwissHashTable class is a hash table of groups of 8 indexes, in the layout of
+ * the Swiss table. Each index has a control byte, EMPTY or the low 7 bits of
+ * the hash key of its object as a tag, and the 8 control bytes of a group are
+ * packed in one long. A probe reads the long of a group and compares all 8 tags
+ * at once with SWAR arithmetic on it, so the hash object is only read where the
+ * tag matches. The group is found from the other bits of the hash key, and the
+ * probe moves on to the next group only when the whole group is full.
+ * <p>
+ * The number of probes of an insert is the number of groups read. Tags need
+ * every bit of the hash key mixed, so the default hasher is MURMUR3.
+ * jdk.incubator.vector is still incubating, so plain long arithmetic is used,
+ * which needs no extra module and compares the same 8 bytes per step.
+ *
+ * @author Sajia Zafreen
+ *
+ * @param <T>
+ */
+public class SwissHashTable<T> implements OpenHashTable<T> {
+
+	/**
+	 * The number of the Swiss table in HashTest, after the probe types of
+	 * HashTable
+	 */
+	public static final int TABLE_TYPE = 5;
+
+	private static final int GROUP_SIZE = 8; // control bytes in one long
+	private static final long LOW_BITS = 0x0101010101010101L; // lowest bit of each control byte
+	private static final long HIGH_BITS = 0x8080808080808080L; // highest bit of each control byte
+	private static final long EMPTY = 0x80; // control byte of an empty index, tags are 0 to 127
+
+	private final HashObject<T>[] hashTable;
+	private final long[] control; // 8 control bytes of each group, index i of a group in byte i
+	private final int groupCount;
+	private final int tableSize;
+	private final Hasher hasher;
+
+	private long totalProbs; // for full hashTable for each of the insertion
+	private long totalInsert;
+	private long duplicateCount;
+	private long tagMisses; // hash objects read on a tag match of another object
+
+	/**
+	 * Constructor
+	 *
+	 * @param tableSize is the table size of the hash table, rounded up to a
+	 *                  whole group of 8
+	 */
+	public SwissHashTable(int tableSize) {
+		this(tableSize, HashFunction.MURMUR3);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param tableSize is the table size of the hash table, rounded up to a
+	 *                  whole group of 8
+	 * @param hasher    is the hasher of the objects
+	 */
+	public SwissHashTable(int tableSize, Hasher hasher) {
+		if (tableSize < 1 || tableSize > Integer.MAX_VALUE - GROUP_SIZE) {
+			throw new IllegalArgumentException(
+					"Table size should be between 1 and " + (Integer.MAX_VALUE - GROUP_SIZE));
+		}
+		this.groupCount = (tableSize + GROUP_SIZE - 1) / GROUP_SIZE;
+		this.tableSize = groupCount * GROUP_SIZE;
+		this.hasher = hasher;
+		this.hashTable = HashTable.newTable(this.tableSize);
+		this.control = new long[groupCount];
+		Arrays.fill(control, EMPTY * LOW_BITS); // every index EMPTY
+	}
+
+	/**
+	 * Returns the high bit of every control byte of the group equal to the tag.
+	 * A byte above a match may also be marked, so every match is checked on the
+	 * hash object.
+	 *
+	 * @param group is the control bytes of the group
+	 * @param tag   is the tag
+	 * @return the high bits of the matching control bytes
+	 */
+	private static long matchTag(long group, int tag) {
+		long bytes = group ^ (LOW_BITS * tag); // a matching byte becomes zero
+		return (bytes - LOW_BITS) & ~bytes & HIGH_BITS;
+	}
+
+	/**
+	 * Returns the high bit of every EMPTY control byte of the group
+	 *
+	 * @param group is the control bytes of the group
+	 * @return the high bits of the empty control bytes
+	 */
+	private static long matchEmpty(long group) {
+		return group & HIGH_BITS;
+	}
+
+	/**
+	 * Returns the index in its group of the lowest marked control byte
+	 *
+	 * @param match is the high bits of the marked control bytes
+	 * @return the index in the group
+	 */
+	private static int lowestIndex(long match) {
+		return Long.numberOfTrailingZeros(match) >>> 3;
+	}
+
+	/**
+	 * Returns the first group of the probe sequence of the hash key
+	 *
+	 * @param key is the hash key
+	 * @return the first group
+	 */
+	private int homeGroup(int key) {
+		return (key >>> 7) % groupCount; // the low 7 bits are the tag
+	}
+
+	@Override
+	public void insert(T object) {
+		insert(object, 1);
+	}
+
+	@Override
+	public void insert(T object, int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException("Count should be at least 1");
+		}
+		int key = hasher.hash(object);
+		int tag = key & 0x7f;
+		int group = homeGroup(key);
+		for (int localCount = 1; localCount <= groupCount; localCount++) {
+			long bytes = control[group];
+			int base = group * GROUP_SIZE;
+			for (long match = matchTag(bytes, tag); match != 0; match &= match - 1) {
+				HashObject<T> stored = hashTable[base + lowestIndex(match)];
+				if (stored != null && stored.getKey() == key && stored.getObject().equals(object)) {
+					stored.setFrequency(stored.getFrequency() + count);
+					duplicateCount += count;
+					return;
+				}
+				tagMisses++;
+			}
+			long empty = matchEmpty(bytes);
+			if (empty != 0) {
+				int index = lowestIndex(empty);
+				HashObject<T> hashObject = new HashObject<T>(object, key);
+				hashObject.setFrequency(count - 1);
+				hashObject.setProbCount(localCount);
+				hashTable[base + index] = hashObject;
+				control[group] = bytes & ~(0xffL << (index << 3)) | ((long) tag << (index << 3));
+				totalInsert++;
+				duplicateCount += count - 1;
+				totalProbs = totalProbs + localCount;
+				return;
+			}
+			group = (group + 1 == groupCount) ? 0 : group + 1;
+		}
+	}
+
+	@Override
+	public void insertAll(T[] objects) {
+		for (T object : objects) {
+			insert(object, 1);
+		}
+	}
+
+	@Override
+	public void insertAll(Iterable<? extends T> objects) {
+		for (T object : objects) {
+			insert(object, 1);
+		}
+	}
+
+	@Override
+	public HashObject<T> search(T object) {
+		int key = hasher.hash(object);
+		int tag = key & 0x7f;
+		int group = homeGroup(key);
+		for (int localCount = 1; localCount <= groupCount; localCount++) {
+			long bytes = control[group];
+			int base = group * GROUP_SIZE;
+			for (long match = matchTag(bytes, tag); match != 0; match &= match - 1) {
+				HashObject<T> stored = hashTable[base + lowestIndex(match)];
+				if (stored != null && stored.getKey() == key && stored.getObject().equals(object)) {
+					return stored;
+				}
+			}
+			if (matchEmpty(bytes) != 0) {
+				return null; // an insert would have stopped at this group
+			}
+			group = (group + 1 == groupCount) ? 0 : group + 1;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns if the object is in the hash table
+	 *
+	 * @param object is the object to be searched in the hash table
+	 * @return if the object is in the hash table
+	 */
+	public boolean contains(T object) {
+		return search(object) != null;
+	}
+
+	@Override
+	public Hasher getHasher() {
+		return hasher;
+	}
+
+	@Override
+	public int getTableType() {
+		return TABLE_TYPE;
+	}
+
+	@Override
+	public String getTableName() {
+		return "Swiss";
+	}
+
+	@Override
+	public int getTableSize() {
+		return tableSize;
+	}
+
+	@Override
+	public HashObject<T> getTableContent(int index) {
+		return hashTable[index];
+	}
+
+	@Override
+	public long getTotalInsert() {
+		return totalInsert;
+	}
+
+	@Override
+	public long getDuplicateCount() {
+		return duplicateCount;
+	}
+
+	@Override
+	public long getTotalProbs() {
+		return totalProbs;
+	}
+
+	/**
+	 * Returns the number of hash objects read on a tag match of another object,
+	 * about one in 128 of the occupied indexes of the groups read
+	 *
+	 * @return the number of tag misses
+	 */
+	public long getTagMisses() {
+		return tagMisses;
+	}
+
+}
@@ -1,18 +1,23 @@
-import java.util.Random;
+import java.util.Arrays;
 
 /**
  * TwinPrimeGenerator class creates twin primes with given iterations.
- * 
+ *
  * @author Sajia Zafreen
  *
  */
 public class TwinPrimeGenerator {
 
+	// bases which make Miller-Rabin exact for every number below 2^64
+	private static final long[] BASES = { 2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37 };
+	private static final int SEGMENT_SIZE = 1 << 15; // numbers sieved at a time
+	private static final int[] SIEVE_PRIMES = smallPrimes(46341); // every prime up to the root of an int
+
 	private int iteration;
 
 	/**
 	 * Constructor
-	 * 
+	 *
 	 * @param iteration is how many times the method checks before if a number is
 	 *                  prime
 	 */
@@ -21,8 +26,9 @@ public class TwinPrimeGenerator {
 	}
 
 	/**
-	 * Returns the larger of the twin primes within the ranges
-	 * 
+	 * Returns the larger of the twin primes within the ranges. The range is sieved
+	 * one segment at a time with the primes up to its square root.
+	 *
 	 * @param from first number in the range
 	 * @param to   last number in the range
 	 * @return larger of the twin primes
@@ -31,72 +37,189 @@ public class TwinPrimeGenerator {
 		if (from % 2 == 0) {
 			from++;
 		}
-		// pass only the odd numbers
-		while (from <= to) {
-			if (isPrime(from)) {// first prime
-				from += 2;
-				if (isPrime(from)) {
-					return from; // next prime
+		// pass only the odd numbers, the smaller prime is in the range and the
+		// larger one may be two past it
+		long high = Math.min((long) to + 2, Integer.MAX_VALUE);
+		boolean composite[] = new boolean[SEGMENT_SIZE];
+		boolean previousPrime = false; // if the odd number before the current one is prime
+		for (long low = Math.max(from, 1); low <= high; low += SEGMENT_SIZE) {
+			int length = (int) Math.min(SEGMENT_SIZE, high - low + 1);
+			sieveSegment(composite, low, length);
+			// low stays odd as the segment size is even
+			for (int i = 0; i < length; i += 2) {
+				long number = low + i;
+				boolean prime = !composite[i];
+				if (prime && previousPrime && number - 2 >= from && number - 2 <= to) {
+					return (int) number; // next prime
 				}
-			} else {
-				from += 2;
+				previousPrime = prime;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Marks the numbers of the segment which are multiples of a smaller prime
+	 *
+	 * @param composite is set to if each number of the segment is composite
+	 * @param low       is the first number of the segment
+	 * @param length    is the number of numbers in the segment
+	 */
+	private static void sieveSegment(boolean composite[], long low, int length) {
+		Arrays.fill(composite, 0, length, false);
+		if (low == 1) {
+			composite[0] = true; // 1 is not a prime
+		}
+		long high = low + length - 1;
+		for (int prime : SIEVE_PRIMES) {
+			long square = (long) prime * prime;
+			if (square > high) {
+				break;
+			}
+			long multiple = Math.max(square, (low + prime - 1) / prime * prime);
+			for (; multiple <= high; multiple += prime) {
+				composite[(int) (multiple - low)] = true;
+			}
+		}
+	}
+
+	/**
+	 * Returns every prime up to the given number with a sieve of Eratosthenes
+	 *
+	 * @param limit is the largest number to check
+	 * @return the primes up to the limit
+	 */
+	private static int[] smallPrimes(int limit) {
+		boolean composite[] = new boolean[limit + 1];
+		int count = 0;
+		int primes[] = new int[limit];
+		for (int number = 2; number <= limit; number++) {
+			if (!composite[number]) {
+				primes[count++] = number;
+				for (long multiple = (long) number * number; multiple <= limit; multiple += number) {
+					composite[(int) multiple] = true;
+				}
+			}
+		}
+		return Arrays.copyOf(primes, count);
+	}
+
+	/**
+	 * Returns the larger of the first twin primes within the range, the same as
+	 * getTwinPrime, testing numbers from the start of the range with isPrime.
+	 * Twin primes above 3 are 6k - 1 and 6k + 1, so one number in six is tested,
+	 * which is faster than sieving when the twin primes are near the start, as
+	 * when a hash table grows.
+	 *
+	 * @param from first number in the range
+	 * @param to   last number in the range
+	 * @return larger of the twin primes, or 0 if there are none in the range
+	 */
+	public static int getNextTwinPrime(int from, int to) {
+		if (from <= 3 && to >= 3) {
+			return 5;
+		}
+		long number = Math.max(from, 5);
+		number += Math.floorMod(5 - number, 6); // 6k - 1
+		for (; number <= to && number + 2 <= Integer.MAX_VALUE; number += 6) {
+			if (isPrime(number) && isPrime(number + 2)) {
+				return (int) number + 2;
 			}
 		}
 		return 0;
 	}
 
 	/**
-	 * Returns if a number is prime or not using Fermat's theorem to test primality
-	 * 
+	 * Returns if a number is prime or not using the Miller-Rabin test, which is
+	 * exact for every long with the first twelve primes as bases
+	 *
 	 * @param number to be checked to be prime
 	 * @return boolean value if the given number is prime or not
 	 */
-	private boolean isPrime(long number) {
-		if (number == 0 || number == 1)
-			return false;
-		if (number == 2)
-			return true;
-		if (number % 2 == 0)
+	public static boolean isPrime(long number) {
+		if (number < 2)
 			return false;
+		for (long base : BASES) {
+			if (number % base == 0) {
+				return number == base;
+			}
+		}
 
-		// long array[] = new long [iteration];
-		boolean returnValue = true;
-
-		// because 1st binary value will be ignored it is 2^0
-		for (int i = 0; i < iteration; i++) {
-			long power = number - 1;// one less than the number
-			String binaryString = Long.toBinaryString(power);// need binary of the power
-
-			Random randomNumber = new Random();
-			long base = Math.max(2,randomNumber.nextInt((int) number));// base is between 1<a<number
-			
-
-			long modNumber = 0;
-			// looping through the binary string from left to right
-			for (int strIndex = 1; strIndex < binaryString.length(); strIndex++) {
-				// always have to do these operations square and then mod
-				if (strIndex == 1) {
-					modNumber = (long) Math.pow(base, 2);
-				} else {
-					modNumber = (long) Math.pow(modNumber, 2);
-				}
-				modNumber = Math.floorMod(modNumber, number);
-				if (binaryString.charAt(strIndex) == '1') {
-					// but if it is a '1' then we need to multiply the "base" and again mod
-					modNumber = modNumber * base;
-					modNumber = Math.floorMod(modNumber, number);
+		// number - 1 = odd * 2^twos
+		long odd = number - 1;
+		int twos = Long.numberOfTrailingZeros(odd);
+		odd >>= twos;
+
+		for (long base : BASES) {
+			long modNumber = powMod(base, odd, number);
+			if (modNumber == 1 || modNumber == number - 1) {
+				continue;
+			}
+			boolean witness = true;
+			for (int i = 1; i < twos && witness; i++) {
+				modNumber = mulMod(modNumber, modNumber, number);
+				if (modNumber == number - 1) {
+					witness = false;
 				}
 			}
-			if (modNumber != 1) {
-				returnValue = false;
+			if (witness) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns base to the power modulo the number, squaring from the lowest bit
+	 * of the power
+	 *
+	 * @param base   is the base
+	 * @param power  is the power
+	 * @param number is the modulus
+	 * @return base ^ power mod number
+	 */
+	private static long powMod(long base, long power, long number) {
+		long result = 1;
+		base %= number;
+		while (power > 0) {
+			if ((power & 1) == 1) {
+				result = mulMod(result, base, number);
+			}
+			base = mulMod(base, base, number);
+			power >>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the exact product of two numbers below the modulus modulo the
+	 * modulus
+	 *
+	 * @param a      is the first number
+	 * @param b      is the second number
+	 * @param number is the modulus
+	 * @return a * b mod number
+	 */
+	private static long mulMod(long a, long b, long number) {
+		if (number <= 3037000499L) { // the product fits in a long
+			return a * b % number;
+		}
+		long result = 0;
+		while (b > 0) { // adds a * 2^k for each bit k of b, doubling without overflow
+			if ((b & 1) == 1) {
+				result = result >= number - a ? result - (number - a) : result + a;
 			}
+			a = a >= number - a ? a - (number - a) : a + a;
+			b >>= 1;
 		}
-		return returnValue;
+		return result;
 	}
 
 	/**
-	 * Returns the iterations done to check if a number is prime or not
-	 * 
+	 * Returns the iterations done to check if a number is prime or not. The
+	 * Miller-Rabin test is exact, so the iterations are kept only for the
+	 * existing callers.
+	 *
 	 * @return iteration
 	 */
 	public int getIteration() {
@@ -105,7 +228,7 @@ public class TwinPrimeGenerator {
 
 	/**
 	 * Sets the iteration to the given iteration
-	 * 
+	 *
 	 * @param iteration set to be new iteration
 	 */
 	public void setIteration(int iteration) {
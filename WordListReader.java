@@ -0,0 +1,147 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * WordListReader class reads a word list one line at a time from a memory
+ * mapped file. The file is mapped one window at a time and only the current
+ * word is copied, so the memory used does not grow with the size of the file.
+ *
+ * @author Sajia Zafreen
+ *
+ */
+public class WordListReader implements Closeable {
+
+	private static final long WINDOW_SIZE = 64L * 1024 * 1024; // bytes mapped at a time
+
+	private final FileChannel channel;
+	private final long fileSize;
+	private final Charset charset;
+
+	private MappedByteBuffer window;
+	private long windowStart; // position of the window in the file
+	private byte[] word = new byte[64]; // bytes of the current word, grown for longer words
+	private int wordLength;
+
+	/**
+	 * Constructor
+	 *
+	 * @param path is the path of the word list
+	 * @throws IOException if the word list cannot be opened
+	 */
+	public WordListReader(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.fileSize = channel.size();
+		this.charset = Charset.defaultCharset(); // same as new String(Files.readAllBytes(...))
+		this.windowStart = 0;
+		mapWindow();
+	}
+
+	/**
+	 * Maps the window of the file starting at windowStart
+	 *
+	 * @throws IOException if the file cannot be mapped
+	 */
+	private void mapWindow() throws IOException {
+		long length = Math.min(WINDOW_SIZE, fileSize - windowStart);
+		window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+	}
+
+	/**
+	 * Reads the bytes of the next line into the word buffer, without the line
+	 * separator
+	 *
+	 * @return if a line was read, false at the end of the file
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public boolean nextLine() throws IOException {
+		wordLength = 0;
+		boolean read = false;
+		while (true) {
+			if (!window.hasRemaining()) {
+				windowStart += window.capacity();
+				if (windowStart >= fileSize) {
+					break;
+				}
+				mapWindow();
+			}
+			int start = window.position();
+			int end = start;
+			int limit = window.limit();
+			while (end < limit && window.get(end) != '\n') {
+				end++;
+			}
+			append(start, end);
+			read = true;
+			if (end < limit) {
+				window.position(end + 1); // skips the new line
+				break;
+			}
+			window.position(end);
+		}
+		if (wordLength > 0 && word[wordLength - 1] == '\r') {
+			wordLength--;
+		}
+		return read;
+	}
+
+	/**
+	 * Copies bytes of the window to the end of the word buffer
+	 *
+	 * @param start is the first byte of the window to copy
+	 * @param end   is one past the last byte to copy
+	 */
+	private void append(int start, int end) {
+		int length = end - start;
+		if (wordLength + length > word.length) {
+			byte[] larger = new byte[Math.max(2 * word.length, wordLength + length)];
+			System.arraycopy(word, 0, larger, 0, wordLength);
+			word = larger;
+		}
+		window.get(start, word, wordLength, length);
+		wordLength += length;
+	}
+
+	/**
+	 * Returns the next word of the list
+	 *
+	 * @return the next word, or null at the end of the file
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public String next() throws IOException {
+		if (!nextLine()) {
+			return null;
+		}
+		return new String(word, 0, wordLength, charset);
+	}
+
+	/**
+	 * Returns the bytes of the current word. Only the first getWordLength bytes
+	 * belong to the word and the array is reused by the next line.
+	 *
+	 * @return the bytes of the current word
+	 */
+	public byte[] getWordBytes() {
+		return word;
+	}
+
+	/**
+	 * Returns the number of bytes of the current word
+	 *
+	 * @return the number of bytes of the current word
+	 */
+	public int getWordLength() {
+		return wordLength;
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+
+}